@@ -0,0 +1,376 @@
+package floormanagement.booking;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import floormanagement.floor.Room;
+
+/**
+ * Assigns rooms to a whole batch of reservation requests at once, such as the next-day planning run,
+ * trying to accept as many requests as possible while wasting as few seats as possible.
+ * Requests whose time windows are chained by overlaps form independent groups that are
+ * allocated in parallel. Within a group, the rooms large enough and still free for each request
+ * are first looked up in parallel, which is where most of the time goes on a large floor.
+ * Requests are then placed earliest-ending first into the smallest candidate room that fits,
+ * and a repair pass moves single blocking requests to other rooms to make space for the ones
+ * left over, until the time budget runs out.
+ * Placement and repair stay sequential within a group, since every decision depends on the ones
+ * before it, so a run whose requests all overlap into one group only parallelises the lookup.
+ * The time budget covers the lookup too: requests not looked up in time are left unassigned.
+ * A request listed more than once is only allocated once.
+ */
+public class BatchAllocator {
+    private static final Comparator<ReservingRoom> BY_END_TIME =
+            Comparator.comparing(ReservingRoom::getEndTime)
+                    .thenComparing(Comparator.comparingInt(ReservingRoom::getTotalMembers).reversed())
+                    .thenComparingInt(ReservingRoom::getId);
+
+    private final List<Room> rooms;
+
+    /**
+     * Constructs a BatchAllocator over the given rooms.
+     *
+     * @param rooms The rooms requests can be assigned to.
+     */
+    public BatchAllocator(List<Room> rooms) {
+        this.rooms = new ArrayList<>(rooms);
+        this.rooms.sort(Comparator.comparingInt(Room::getCapacity));
+    }
+
+    /**
+     * Allocates rooms to the requests and books them.
+     *
+     * @param requests The reservation requests to be allocated, duplicates are ignored.
+     * @param budget   The time the allocation may take before the remaining requests are left unassigned.
+     * @return The assignments made and the requests left unassigned.
+     */
+    public Result allocate(List<ReservingRoom> requests, Duration budget) {
+        long deadline = System.nanoTime() + budget.toNanos();
+        List<ReservingRoom> distinct = new ArrayList<>(new LinkedHashSet<>(requests));
+        List<Group> groups = groupByOverlap(distinct).parallelStream()
+                .map(group -> allocateGroup(group, deadline))
+                .collect(Collectors.toList());
+
+        Result result = new Result();
+        for (Group group : groups) {
+            result.timedOut |= group.timedOut;
+            result.unassigned.addAll(group.unassigned);
+            for (Map.Entry<Room, List<ReservingRoom>> assigned : group.assignments.entrySet()) {
+                for (ReservingRoom request : assigned.getValue()) {
+                    if (request.tryAssign(assigned.getKey())) {
+                        result.assignments.put(request, assigned.getKey());
+                        result.wastedSeats += assigned.getKey().getCapacity() - request.getTotalMembers();
+                    } else {
+                        result.unassigned.add(request);
+                    }
+                }
+            }
+        }
+        System.out.println("Batch allocation assigned " + result.assignments.size() + " of " + distinct.size()
+                + " requests");
+        return result;
+    }
+
+    /**
+     * Splits the requests into groups that don't overlap in time with each other.
+     *
+     * @param requests The reservation requests.
+     * @return The groups of requests.
+     */
+    private static List<List<ReservingRoom>> groupByOverlap(List<ReservingRoom> requests) {
+        List<ReservingRoom> byStartTime = new ArrayList<>(requests);
+        byStartTime.sort(Comparator.comparing(ReservingRoom::getStartTime));
+        List<List<ReservingRoom>> groups = new ArrayList<>();
+        List<ReservingRoom> current = null;
+        LocalDateTime groupEnd = null;
+        for (ReservingRoom request : byStartTime) {
+            if (current == null || request.getStartTime().isAfter(groupEnd)) {
+                current = new ArrayList<>();
+                groups.add(current);
+                groupEnd = request.getEndTime();
+            } else if (request.getEndTime().isAfter(groupEnd)) {
+                groupEnd = request.getEndTime();
+            }
+            current.add(request);
+        }
+        return groups;
+    }
+
+    /**
+     * Allocates the requests of one group of overlapping requests, without booking them yet.
+     *
+     * @param requests The requests of the group.
+     * @param deadline The {@link System#nanoTime()} by which the allocation must stop.
+     * @return The tentative assignments of the group.
+     */
+    private Group allocateGroup(List<ReservingRoom> requests, long deadline) {
+        Group group = new Group(candidateRooms(requests, deadline));
+        List<ReservingRoom> byEndTime = new ArrayList<>(requests);
+        byEndTime.sort(BY_END_TIME);
+        for (ReservingRoom request : byEndTime) {
+            if (System.nanoTime() > deadline || !group.candidates.containsKey(request)) {
+                group.timedOut = true;
+                group.unassigned.add(request);
+                continue;
+            }
+            Room room = bestFit(group, request, null);
+            if (room != null) {
+                group.assign(room, request);
+            } else {
+                group.unassigned.add(request);
+            }
+        }
+        repair(group, deadline);
+        return group;
+    }
+
+    /**
+     * Looks up in parallel the rooms each request fits into, ignoring the other requests of the batch.
+     * Requests reached after the deadline are not looked up.
+     *
+     * @param requests The distinct requests of a group.
+     * @param deadline The {@link System#nanoTime()} by which the lookup must stop.
+     * @return The rooms that fit each request looked up in time, smallest first.
+     */
+    private Map<ReservingRoom, List<Room>> candidateRooms(List<ReservingRoom> requests, long deadline) {
+        Map<ReservingRoom, List<Room>> candidates = new ConcurrentHashMap<>();
+        requests.parallelStream().forEach(request -> {
+            if (System.nanoTime() <= deadline) {
+                candidates.put(request, rooms.stream().filter(room -> fits(room, request))
+                        .collect(Collectors.toList()));
+            }
+        });
+        return candidates;
+    }
+
+    /**
+     * Tries to place each unassigned request by moving the single request blocking it in a room
+     * to another room.
+     *
+     * @param group    The group to repair.
+     * @param deadline The {@link System#nanoTime()} by which the repair must stop.
+     */
+    private void repair(Group group, long deadline) {
+        List<ReservingRoom> unassigned = new ArrayList<>(group.unassigned);
+        group.unassigned.clear();
+        for (ReservingRoom request : unassigned) {
+            if (System.nanoTime() > deadline) {
+                group.timedOut = true;
+                group.unassigned.add(request);
+                continue;
+            }
+            if (!moveBlocker(group, request)) {
+                group.unassigned.add(request);
+            }
+        }
+    }
+
+    /**
+     * Looks for a room where the request is blocked by a single other request that fits elsewhere,
+     * and swaps them.
+     *
+     * @param group   The group being allocated.
+     * @param request The unassigned request.
+     * @return True if the request has been placed, false otherwise.
+     */
+    private boolean moveBlocker(Group group, ReservingRoom request) {
+        for (Room room : group.candidates.getOrDefault(request, Collections.<Room>emptyList())) {
+            List<ReservingRoom> blockers = group.conflicts(room, request);
+            if (blockers.size() != 1) {
+                continue;
+            }
+            ReservingRoom blocker = blockers.get(0);
+            Room other = bestFit(group, blocker, room);
+            if (other != null) {
+                group.unassign(room, blocker);
+                group.assign(other, blocker);
+                group.assign(room, request);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the smallest candidate room that is free during the request's window, preferring
+     * among equally sized rooms the one leaving the smallest gap before the request.
+     *
+     * @param group    The group being allocated.
+     * @param request  The request to be placed.
+     * @param excluded A room that must not be chosen, may be null.
+     * @return The best room, or null if no room is free.
+     */
+    private Room bestFit(Group group, ReservingRoom request, Room excluded) {
+        Room best = null;
+        Duration bestGap = null;
+        for (Room room : group.candidates.getOrDefault(request, Collections.<Room>emptyList())) {
+            if (best != null && room.getCapacity() > best.getCapacity()) {
+                break;
+            }
+            if (room == excluded || !group.conflicts(room, request).isEmpty()) {
+                continue;
+            }
+            Duration gap = group.gapBefore(room, request);
+            if (best == null || gap.compareTo(bestGap) < 0) {
+                best = room;
+                bestGap = gap;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Checks if the room is large enough for the request and not already booked during its window.
+     *
+     * @param room    The room.
+     * @param request The request.
+     * @return True if the room can hold the request, false otherwise.
+     */
+    private static boolean fits(Room room, ReservingRoom request) {
+        return room.hasEnoughCapacity(request.getTotalMembers())
+                && room.isAvailable(request.getStartTime(), request.getEndTime());
+    }
+
+    /**
+     * Checks if two requests overlap in time.
+     *
+     * @param first  The first request.
+     * @param second The second request.
+     * @return True if the requests overlap, false otherwise.
+     */
+    private static boolean overlaps(ReservingRoom first, ReservingRoom second) {
+        return !(first.getStartTime().isAfter(second.getEndTime())
+                || first.getEndTime().isBefore(second.getStartTime()));
+    }
+
+    /**
+     * The tentative assignments of one group of overlapping requests.
+     */
+    private static class Group {
+        private final Map<ReservingRoom, List<Room>> candidates;
+        private final Map<Room, List<ReservingRoom>> assignments = new HashMap<>();
+        private final List<ReservingRoom> unassigned = new ArrayList<>();
+        private boolean timedOut;
+
+        /**
+         * Constructs a Group without any assignments.
+         *
+         * @param candidates The rooms that fit each request of the group, smallest first.
+         */
+        Group(Map<ReservingRoom, List<Room>> candidates) {
+            this.candidates = candidates;
+        }
+
+        /**
+         * Places a request in a room.
+         *
+         * @param room    The room.
+         * @param request The request.
+         */
+        void assign(Room room, ReservingRoom request) {
+            assignments.computeIfAbsent(room, key -> new ArrayList<>()).add(request);
+        }
+
+        /**
+         * Takes a request out of a room.
+         *
+         * @param room    The room.
+         * @param request The request.
+         */
+        void unassign(Room room, ReservingRoom request) {
+            assignments.get(room).remove(request);
+        }
+
+        /**
+         * Retrieves the requests already placed in the room that overlap the given request.
+         *
+         * @param room    The room.
+         * @param request The request.
+         * @return The overlapping requests.
+         */
+        List<ReservingRoom> conflicts(Room room, ReservingRoom request) {
+            List<ReservingRoom> conflicts = new ArrayList<>();
+            for (ReservingRoom assigned : assignments.getOrDefault(room, Collections.<ReservingRoom>emptyList())) {
+                if (overlaps(assigned, request)) {
+                    conflicts.add(assigned);
+                }
+            }
+            return conflicts;
+        }
+
+        /**
+         * Retrieves the idle time in the room between the last request placed before the given
+         * request and the given request.
+         *
+         * @param room    The room.
+         * @param request The request.
+         * @return The idle time, or the time since the start of the day if nothing precedes it.
+         */
+        Duration gapBefore(Room room, ReservingRoom request) {
+            LocalDateTime previousEnd = request.getStartTime().toLocalDate().atStartOfDay();
+            for (ReservingRoom assigned : assignments.getOrDefault(room, Collections.<ReservingRoom>emptyList())) {
+                if (assigned.getEndTime().isBefore(request.getStartTime())
+                        && assigned.getEndTime().isAfter(previousEnd)) {
+                    previousEnd = assigned.getEndTime();
+                }
+            }
+            return Duration.between(previousEnd, request.getStartTime());
+        }
+    }
+
+    /**
+     * The outcome of a batch allocation.
+     */
+    public static class Result {
+        private final Map<ReservingRoom, Room> assignments = new LinkedHashMap<>();
+        private final List<ReservingRoom> unassigned = new ArrayList<>();
+        private boolean timedOut;
+        private long wastedSeats;
+
+        /**
+         * Retrieves the room booked for each assigned request.
+         *
+         * @return The assignments.
+         */
+        public Map<ReservingRoom, Room> getAssignments() {
+            return Collections.unmodifiableMap(assignments);
+        }
+
+        /**
+         * Retrieves the requests no room could be booked for.
+         *
+         * @return The unassigned requests.
+         */
+        public List<ReservingRoom> getUnassigned() {
+            return Collections.unmodifiableList(unassigned);
+        }
+
+        /**
+         * Checks if the time budget ran out before every request could be considered.
+         *
+         * @return True if the allocation was cut short, false otherwise.
+         */
+        public boolean isTimedOut() {
+            return this.timedOut;
+        }
+
+        /**
+         * Retrieves the total number of seats left empty in the booked rooms.
+         *
+         * @return The wasted seats.
+         */
+        public long getWastedSeats() {
+            return this.wastedSeats;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package floormanagement.booking;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores reservations that have already ended, outside of the rooms' live booking sets.
+ * Only the fields needed for reporting are kept, so the archive stays compact as history grows.
+ */
+public class ReservationArchive {
+    private final Map<Integer, List<ArchivedReservation>> archiveByRoom;
+
+    /**
+     * Constructs an empty ReservationArchive.
+     */
+    public ReservationArchive() {
+        this.archiveByRoom = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Archives an expired reservation of the given room.
+     *
+     * @param roomId      The identifier of the room the reservation belonged to.
+     * @param reservation The expired reservation.
+     */
+    public void add(int roomId, ReservingRoom reservation) {
+        add(new ArchivedReservation(roomId, reservation));
+    }
+
+    /**
+     * Adds an already archived reservation, such as one restored from a snapshot.
+     *
+     * @param reservation The archived reservation.
+     */
+    public void add(ArchivedReservation reservation) {
+        List<ArchivedReservation> archived = archiveByRoom.computeIfAbsent(reservation.getRoomId(),
+                key -> Collections.synchronizedList(new ArrayList<>()));
+        archived.add(reservation);
+    }
+
+    /**
+     * Checks if a reservation of the given room has been archived.
+     *
+     * @param roomId        The identifier of the room.
+     * @param reservationId The identifier of the reservation.
+     * @return True if the reservation is in the archive, false otherwise.
+     */
+    public boolean contains(int roomId, int reservationId) {
+        for (ArchivedReservation reservation : getArchived(roomId)) {
+            if (reservation.getId() == reservationId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves every archived reservation of every room.
+     *
+     * @return A copy of the archived reservations, grouped by room.
+     */
+    public List<ArchivedReservation> getArchived() {
+        List<ArchivedReservation> all = new ArrayList<>();
+        for (int roomId : archiveByRoom.keySet()) {
+            all.addAll(getArchived(roomId));
+        }
+        return all;
+    }
+
+    /**
+     * Retrieves every archived reservation of the given room.
+     *
+     * @param roomId The identifier of the room.
+     * @return A copy of the archived reservations of the room.
+     */
+    public List<ArchivedReservation> getArchived(int roomId) {
+        List<ArchivedReservation> archived = archiveByRoom.get(roomId);
+        if (archived == null) {
+            return new ArrayList<>();
+        }
+        synchronized (archived) {
+            return new ArrayList<>(archived);
+        }
+    }
+
+    /**
+     * Retrieves the archived reservations of the given room that overlap the specified period.
+     *
+     * @param roomId The identifier of the room.
+     * @param from   The start of the period.
+     * @param to     The end of the period.
+     * @return The archived reservations overlapping the period.
+     */
+    public List<ArchivedReservation> getArchived(int roomId, LocalDateTime from, LocalDateTime to) {
+        List<ArchivedReservation> matching = new ArrayList<>();
+        for (ArchivedReservation reservation : getArchived(roomId)) {
+            if (!(reservation.getStartTime().isAfter(to) || reservation.getEndTime().isBefore(from))) {
+                matching.add(reservation);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Retrieves the total number of archived reservations across all rooms.
+     *
+     * @return The number of archived reservations.
+     */
+    public int size() {
+        int size = 0;
+        for (List<ArchivedReservation> archived : archiveByRoom.values()) {
+            size += archived.size();
+        }
+        return size;
+    }
+
+    /**
+     * A compact, read-only record of a reservation that has ended.
+     */
+    public static class ArchivedReservation {
+        private final int id;
+        private final int roomId;
+        private final long startEpochSecond;
+        private final long endEpochSecond;
+        private final int totalMembers;
+        private final boolean checkedIn;
+
+        /**
+         * Constructs an ArchivedReservation from a live reservation.
+         *
+         * @param roomId      The identifier of the room the reservation belonged to.
+         * @param reservation The reservation to archive.
+         */
+        ArchivedReservation(int roomId, ReservingRoom reservation) {
+            this(reservation.getId(), roomId, reservation.getStartTime(), reservation.getEndTime(),
+                    reservation.getTotalMembers(), reservation.isCheckedIn());
+        }
+
+        /**
+         * Constructs an ArchivedReservation from its recorded fields.
+         *
+         * @param id           The identifier of the reservation.
+         * @param roomId       The identifier of the room the reservation belonged to.
+         * @param startTime    The start time of the reservation.
+         * @param endTime      The end time of the reservation.
+         * @param totalMembers The total number of members of the reservation.
+         * @param checkedIn    Whether the members had checked in.
+         */
+        public ArchivedReservation(int id, int roomId, LocalDateTime startTime, LocalDateTime endTime,
+                                    int totalMembers, boolean checkedIn) {
+            this.id = id;
+            this.roomId = roomId;
+            this.startEpochSecond = startTime.toEpochSecond(ZoneOffset.UTC);
+            this.endEpochSecond = endTime.toEpochSecond(ZoneOffset.UTC);
+            this.totalMembers = totalMembers;
+            this.checkedIn = checkedIn;
+        }
+
+        /**
+         * Retrieves the identifier of the archived reservation.
+         *
+         * @return The reservation's identifier.
+         */
+        public int getId() {
+            return this.id;
+        }
+
+        /**
+         * Retrieves the identifier of the room the reservation belonged to.
+         *
+         * @return The room's identifier.
+         */
+        public int getRoomId() {
+            return this.roomId;
+        }
+
+        /**
+         * Retrieves the start time of the archived reservation.
+         *
+         * @return The start time of the reservation.
+         */
+        public LocalDateTime getStartTime() {
+            return LocalDateTime.ofEpochSecond(startEpochSecond, 0, ZoneOffset.UTC);
+        }
+
+        /**
+         * Retrieves the end time of the archived reservation.
+         *
+         * @return The end time of the reservation.
+         */
+        public LocalDateTime getEndTime() {
+            return LocalDateTime.ofEpochSecond(endEpochSecond, 0, ZoneOffset.UTC);
+        }
+
+        /**
+         * Retrieves the total number of members of the archived reservation.
+         *
+         * @return The total number of members.
+         */
+        public int getTotalMembers() {
+            return this.totalMembers;
+        }
+
+        /**
+         * Checks if the members of the archived reservation had checked in.
+         *
+         * @return True if the reservation had been checked in, false if it was a no-show.
+         */
+        public boolean isCheckedIn() {
+            return this.checkedIn;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package floormanagement.booking;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import floormanagement.floor.FloorPlan;
+import floormanagement.floor.Room;
+
+/**
+ * Background maintenance task that moves expired reservations out of the rooms
+ * and into a {@link ReservationArchive}, so that availability checks only scan
+ * current and upcoming bookings.
+ */
+public class ReservationCompactor {
+    private final List<FloorPlan> floorPlans;
+    private final ReservationArchive archive;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a ReservationCompactor for the given floor plans.
+     *
+     * @param floorPlans The floor plans whose rooms should be compacted.
+     * @param archive    The archive receiving expired reservations.
+     */
+    public ReservationCompactor(List<FloorPlan> floorPlans, ReservationArchive archive) {
+        this.floorPlans = floorPlans;
+        this.archive = archive;
+    }
+
+    /**
+     * Retrieves the archive expired reservations are moved to.
+     *
+     * @return The reservation archive.
+     */
+    public ReservationArchive getArchive() {
+        return this.archive;
+    }
+
+    /**
+     * Starts compacting periodically on a background daemon thread.
+     *
+     * @param period The time between two compaction runs.
+     * @param unit   The unit of the period.
+     * @throws IllegalStateException If the compactor is already running.
+     */
+    public synchronized void start(long period, TimeUnit unit) throws IllegalStateException {
+        if (scheduler != null) {
+            throw new IllegalStateException("Reservation compactor is already running");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::compact, period, period, unit);
+    }
+
+    /**
+     * Stops the periodic compaction.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Archives every reservation that has already ended.
+     *
+     * @return The number of reservations archived.
+     */
+    public int compact() {
+        LocalDateTime now = LocalDateTime.now();
+        int archived = 0;
+        try {
+            for (FloorPlan plan : floorPlans) {
+                for (Room room : plan.getRooms()) {
+                    archived += room.archiveExpired(now, archive);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Couldn't compact reservations due to :- " + e.getMessage());
+        }
+        return archived;
+    }
+}
@@ -4,6 +4,8 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 
 import floormanagement.floor.Room;
@@ -19,9 +21,11 @@ public class ReservingRoom {
     private final Admin creator;
     private final String description;
     private final LocalDateTime startTime;
-    private final LocalDateTime endTime;
+    private volatile LocalDateTime endTime;
     private final int totalMembers;
     private List<Room> rooms;
+    private final List<Room> bookedRooms;
+    private volatile boolean checkedIn;
 
     /**
      * Constructs a new ReservingRoom object with the provided parameters.
@@ -42,6 +46,65 @@ public class ReservingRoom {
         this.endTime = LocalDateTime.parse(endTime);
         this.description = description;
         this.totalMembers = totalMembers;
+        this.bookedRooms = new ArrayList<>();
+    }
+
+    /**
+     * Retrieves the unique identifier of the reservation.
+     *
+     * @return The reservation's identifier.
+     */
+    public int getId() {
+        return this.id;
+    }
+
+    /**
+     * Retrieves the admin responsible for creating this reservation.
+     *
+     * @return The admin who created the reservation.
+     */
+    public Admin getCreator() {
+        return this.creator;
+    }
+
+    /**
+     * Retrieves the description of the reservation.
+     *
+     * @return The description of the reservation.
+     */
+    public String getDescription() {
+        return this.description;
+    }
+
+    /**
+     * Retrieves the total number of members expected for the reservation.
+     *
+     * @return The total number of members.
+     */
+    public int getTotalMembers() {
+        return this.totalMembers;
+    }
+
+    /**
+     * Checks if the members of the reservation have checked in.
+     *
+     * @return True if the reservation has been checked in, false otherwise.
+     */
+    public boolean isCheckedIn() {
+        return this.checkedIn;
+    }
+
+    /**
+     * Records that the members of the reservation have shown up.
+     */
+    public void checkIn() {
+        if (this.checkedIn) {
+            return;
+        }
+        this.checkedIn = true;
+        for (Room room : getBookedRooms()) {
+            room.reservationCheckedIn(this);
+        }
     }
 
     /**
@@ -72,14 +135,34 @@ public class ReservingRoom {
     }
 
     /**
-     * Books the room by checking availability and capacity, then marking it as booked if suitable.
+     * Retrieves the rooms this reservation currently holds.
+     *
+     * @return A copy of the booked rooms.
+     */
+    public synchronized List<Room> getBookedRooms() {
+        return new ArrayList<>(bookedRooms);
+    }
+
+    /**
+     * Books the first room that is available and large enough, leaving the other rooms untouched.
      */
     public void bookRoom() {
+        bookRoom(null, 0);
+    }
+
+    /**
+     * Books the first suitable room like {@link #bookRoom()}, and queues the request on the waitlist
+     * if no suitable room is found.
+     *
+     * @param waitlist The waitlist to queue the request on, or null to not queue it.
+     * @param priority The priority of the request on the waitlist, higher is served first.
+     */
+    public void bookRoom(Waitlist waitlist, int priority) {
         this.rooms = getRoomsFromDB();
         for (Room room : rooms) {
-            if (room.isAvailable(startTime, endTime) && room.hasEnoughCapacity(totalMembers)) {
+            if (tryAssign(room)) {
                 System.out.println("Booked Room Id: " + room.getRoomName());
-                room.markBooked();
+                return;
             } else {
                 System.out.print("Booking failed due to :- ");
                 if (!room.isAvailable(startTime, endTime)) {
@@ -89,6 +172,122 @@ public class ReservingRoom {
                 }
             }
         }
+        if (waitlist != null) {
+            waitlist.enqueue(this, priority);
+        }
+    }
+
+    /**
+     * Cancels the reservation, releasing its rooms and offering them to the waitlist.
+     * Each room is dropped from the booked rooms and released under the room's lock, so it never
+     * interleaves with a shortening.
+     *
+     * @param waitlist The waitlist to match against the released rooms, or null to skip matching.
+     */
+    public void cancel(Waitlist waitlist) {
+        for (Room room : getBookedRooms()) {
+            synchronized (room) {
+                boolean booked;
+                synchronized (this) {
+                    booked = bookedRooms.remove(room);
+                }
+                if (!booked) {
+                    continue;
+                }
+                room.cancelReservation(this);
+            }
+            if (waitlist != null) {
+                waitlist.onRoomReleased(room, startTime, endTime);
+            }
+        }
+        if (waitlist != null) {
+            waitlist.remove(this);
+        }
+    }
+
+    /**
+     * Shortens the reservation to end earlier, offering the freed time to the waitlist.
+     * The end time is changed and the rooms' listeners notified while holding the locks of all
+     * booked rooms, so a concurrent cancellation releases either the old or the new period.
+     *
+     * @param newEndTime The new end time of the reservation.
+     * @param waitlist   The waitlist to match against the freed time, or null to skip matching.
+     * @throws IllegalArgumentException If the new end time is not within the current reservation.
+     */
+    public void shorten(LocalDateTime newEndTime, Waitlist waitlist) throws IllegalArgumentException {
+        List<Room> rooms;
+        LocalDateTime previousEndTime;
+        do {
+            rooms = getBookedRooms();
+            rooms.sort(Comparator.comparingInt(Room::getRoomId));
+            previousEndTime = shortenLocked(rooms, 0, newEndTime);
+        } while (previousEndTime == null);
+        if (waitlist != null) {
+            for (Room room : rooms) {
+                waitlist.onRoomReleased(room, newEndTime, previousEndTime);
+            }
+        }
+    }
+
+    /**
+     * Takes the locks of the given rooms one by one in identifier order, so concurrent shortenings
+     * never deadlock, then shortens the reservation if it is still booked on exactly those rooms.
+     *
+     * @param rooms      The booked rooms, ordered by identifier.
+     * @param index      The index of the next room to lock.
+     * @param newEndTime The new end time of the reservation.
+     * @return The end time before shortening, or null if the booked rooms changed meanwhile.
+     * @throws IllegalArgumentException If the new end time is not within the current reservation.
+     */
+    private LocalDateTime shortenLocked(List<Room> rooms, int index, LocalDateTime newEndTime)
+            throws IllegalArgumentException {
+        if (index < rooms.size()) {
+            synchronized (rooms.get(index)) {
+                return shortenLocked(rooms, index + 1, newEndTime);
+            }
+        }
+        if (!new HashSet<>(getBookedRooms()).equals(new HashSet<>(rooms))) {
+            return null;
+        }
+        LocalDateTime previousEndTime = this.endTime;
+        if (newEndTime.isBefore(startTime) || !newEndTime.isBefore(previousEndTime)) {
+            throw new IllegalArgumentException("New end time must be within the current reservation");
+        }
+        this.endTime = newEndTime;
+        for (Room room : rooms) {
+            room.reservationShortened(this, previousEndTime);
+        }
+        return previousEndTime;
+    }
+
+    /**
+     * Books the given room if it is available and large enough, checking and booking atomically
+     * with respect to other callers of this method on the same room.
+     *
+     * @param room The room to be booked.
+     * @return True if the room has been booked, false otherwise.
+     */
+    public boolean tryAssign(Room room) {
+        synchronized (room) {
+            if (!room.isAvailable(startTime, endTime) || !room.hasEnoughCapacity(totalMembers)) {
+                return false;
+            }
+            assign(room);
+            return true;
+        }
+    }
+
+    /**
+     * Records the reservation on the given room and marks the room as booked.
+     *
+     * @param room The room to be assigned to this reservation.
+     */
+    void assign(Room room) {
+        room.markBooked();
+        room.addReservation(this);
+        synchronized (this) {
+            bookedRooms.add(room);
+        }
     }
 
     /**
@@ -0,0 +1,330 @@
+package floormanagement.booking;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import floormanagement.floor.Room;
+
+/**
+ * Queues booking requests that could not be served and assigns them as soon as a
+ * room is released by a cancellation or a shortened reservation.
+ * Waiting requests are indexed by capacity class and start time, so a released room
+ * is only matched against requests that could fit into it. Each capacity class tracks
+ * its longest waiting request, which bounds the start times worth scanning from below.
+ * Requests whose end time has passed are dropped whenever the waitlist changes.
+ * Requests with a higher priority are served first, and requests of the same priority
+ * in arrival order.
+ */
+public class Waitlist {
+    private static final Comparator<WaitingRequest> BY_START_TIME =
+            Comparator.comparing((WaitingRequest waiting) -> waiting.startTime)
+                    .thenComparingLong(waiting -> waiting.sequence);
+    private static final Comparator<WaitingRequest> BY_END_TIME =
+            Comparator.comparing((WaitingRequest waiting) -> waiting.endTime)
+                    .thenComparingLong(waiting -> waiting.sequence);
+
+    private final NavigableMap<Integer, CapacityClass> waitingByCapacity;
+    private final NavigableSet<WaitingRequest> waitingByEndTime;
+    private final Map<ReservingRoom, WaitingRequest> waitingByReservation;
+    private long nextSequence;
+
+    /**
+     * Constructs an empty Waitlist.
+     */
+    public Waitlist() {
+        this.waitingByCapacity = new TreeMap<>();
+        this.waitingByEndTime = new TreeSet<>(BY_END_TIME);
+        this.waitingByReservation = new HashMap<>();
+        this.nextSequence = 0;
+    }
+
+    /**
+     * Queues a reservation request that could not be booked.
+     *
+     * @param reservation The reservation request to queue.
+     * @param priority    The priority of the request, higher is served first.
+     */
+    public synchronized void enqueue(ReservingRoom reservation, int priority) {
+        LocalDateTime now = LocalDateTime.now();
+        removeExpired(now);
+        if (waitingByReservation.containsKey(reservation) || reservation.getEndTime().isBefore(now)) {
+            return;
+        }
+        WaitingRequest waiting = new WaitingRequest(reservation, priority, nextSequence++);
+        waitingByCapacity.computeIfAbsent(waiting.totalMembers, key -> new CapacityClass()).add(waiting);
+        waitingByEndTime.add(waiting);
+        waitingByReservation.put(reservation, waiting);
+        System.out.println("Reservation " + reservation.getId() + " added to the waitlist");
+    }
+
+    /**
+     * Removes a reservation request from the waitlist.
+     *
+     * @param reservation The reservation request to remove.
+     * @return True if the request was waiting, false otherwise.
+     */
+    public synchronized boolean remove(ReservingRoom reservation) {
+        WaitingRequest waiting = waitingByReservation.get(reservation);
+        if (waiting == null) {
+            return false;
+        }
+        remove(waiting);
+        return true;
+    }
+
+    /**
+     * Retrieves a waiting reservation request by its identifier.
+     *
+     * @param reservationId The identifier of the reservation.
+     * @return The waiting reservation, or null if no request with that identifier is waiting.
+     */
+    public synchronized ReservingRoom findReservation(int reservationId) {
+        for (ReservingRoom reservation : waitingByReservation.keySet()) {
+            if (reservation.getId() == reservationId) {
+                return reservation;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the waiting requests with their priorities, so they can be queued again elsewhere.
+     *
+     * @return The waiting reservations mapped to their priorities, in arrival order.
+     */
+    public synchronized Map<ReservingRoom, Integer> getWaiting() {
+        List<WaitingRequest> byArrival = new ArrayList<>(waitingByReservation.values());
+        byArrival.sort(Comparator.comparingLong(waiting -> waiting.sequence));
+        Map<ReservingRoom, Integer> waiting = new LinkedHashMap<>();
+        for (WaitingRequest request : byArrival) {
+            waiting.put(request.reservation, request.priority);
+        }
+        return waiting;
+    }
+
+    /**
+     * Drops every waiting request that ended before the given time, since no room can serve it anymore.
+     *
+     * @param now The point in time before which requests are considered expired.
+     * @return The number of requests dropped.
+     */
+    public synchronized int removeExpired(LocalDateTime now) {
+        int expired = 0;
+        while (!waitingByEndTime.isEmpty() && waitingByEndTime.first().endTime.isBefore(now)) {
+            WaitingRequest waiting = waitingByEndTime.first();
+            remove(waiting);
+            System.out.println("Reservation " + waiting.reservation.getId() + " expired on the waitlist");
+            expired++;
+        }
+        return expired;
+    }
+
+    /**
+     * Retrieves the number of requests waiting for a room.
+     *
+     * @return The number of waiting requests.
+     */
+    public synchronized int size() {
+        return waitingByReservation.size();
+    }
+
+    /**
+     * Matches the waitlist against a room that has been released during the given period,
+     * assigning the room to waiting requests until none of them fits anymore.
+     *
+     * @param room The room that has been released.
+     * @param from The start of the released period.
+     * @param to   The end of the released period.
+     * @return The reservations that have been assigned to the room.
+     */
+    public synchronized List<ReservingRoom> onRoomReleased(Room room, LocalDateTime from, LocalDateTime to) {
+        removeExpired(LocalDateTime.now());
+        List<ReservingRoom> assigned = new ArrayList<>();
+        Set<WaitingRequest> raced = new HashSet<>();
+        WaitingRequest match = findMatch(room, from, to, raced);
+        while (match != null) {
+            if (match.reservation.tryAssign(room)) {
+                remove(match);
+                System.out.println("Booked Room Id: " + room.getRoomId() + " for waiting reservation "
+                        + match.reservation.getId());
+                assigned.add(match.reservation);
+            } else {
+                raced.add(match);
+            }
+            match = findMatch(room, from, to, raced);
+        }
+        return assigned;
+    }
+
+    /**
+     * Removes a waiting request from every index.
+     *
+     * @param waiting The waiting request to remove.
+     */
+    private void remove(WaitingRequest waiting) {
+        waitingByReservation.remove(waiting.reservation);
+        waitingByEndTime.remove(waiting);
+        CapacityClass sameCapacity = waitingByCapacity.get(waiting.totalMembers);
+        sameCapacity.remove(waiting);
+        if (sameCapacity.isEmpty()) {
+            waitingByCapacity.remove(waiting.totalMembers);
+        }
+    }
+
+    /**
+     * Finds the waiting request to serve first among those that fit into the released room.
+     * Only requests starting within the longest duration of their capacity class before the
+     * released period can still overlap it, so earlier start times are never scanned.
+     *
+     * @param room The room that has been released.
+     * @param from The start of the released period.
+     * @param to   The end of the released period.
+     * @param skip Requests that lost the room to a concurrent booking during this release.
+     * @return The best matching request, or null if none fits.
+     */
+    private WaitingRequest findMatch(Room room, LocalDateTime from, LocalDateTime to, Set<WaitingRequest> skip) {
+        WaitingRequest upper = new WaitingRequest(to, Long.MAX_VALUE);
+        WaitingRequest best = null;
+        for (CapacityClass sameCapacity : waitingByCapacity.headMap(room.getCapacity(), true).values()) {
+            WaitingRequest lower = new WaitingRequest(from.minus(sameCapacity.longestDuration()), Long.MIN_VALUE);
+            for (WaitingRequest waiting : sameCapacity.byStartTime.subSet(lower, true, upper, true)) {
+                if (waiting.endTime.isBefore(from) || skip.contains(waiting)
+                        || (best != null && !waiting.isServedBefore(best))) {
+                    continue;
+                }
+                ReservingRoom reservation = waiting.reservation;
+                if (room.isAvailable(reservation.getStartTime(), reservation.getEndTime())) {
+                    best = waiting;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The waiting requests for the same number of members, ordered by start time.
+     */
+    private static class CapacityClass {
+        private final NavigableSet<WaitingRequest> byStartTime = new TreeSet<>(BY_START_TIME);
+        private final NavigableMap<Duration, Integer> durations = new TreeMap<>();
+
+        /**
+         * Adds a waiting request to the class.
+         *
+         * @param waiting The waiting request.
+         */
+        void add(WaitingRequest waiting) {
+            byStartTime.add(waiting);
+            durations.merge(waiting.duration(), 1, Integer::sum);
+        }
+
+        /**
+         * Removes a waiting request from the class.
+         *
+         * @param waiting The waiting request.
+         */
+        void remove(WaitingRequest waiting) {
+            if (byStartTime.remove(waiting)) {
+                durations.computeIfPresent(waiting.duration(), (duration, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+
+        /**
+         * Checks if no request of this class is waiting.
+         *
+         * @return True if the class is empty, false otherwise.
+         */
+        boolean isEmpty() {
+            return byStartTime.isEmpty();
+        }
+
+        /**
+         * Retrieves the duration of the longest request waiting in this class.
+         *
+         * @return The longest duration, or zero if the class is empty.
+         */
+        Duration longestDuration() {
+            return durations.isEmpty() ? Duration.ZERO : durations.lastKey();
+        }
+    }
+
+    /**
+     * A reservation request waiting for a room, with its position in the queue.
+     * The time window and size are captured on arrival so the request can always be found
+     * in the indexes again; a reservation only ever gets shorter, so the captured window
+     * still covers it.
+     */
+    private static class WaitingRequest {
+        private final ReservingRoom reservation;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+        private final int totalMembers;
+        private final int priority;
+        private final long sequence;
+
+        /**
+         * Constructs a WaitingRequest for the given reservation.
+         *
+         * @param reservation The waiting reservation request.
+         * @param priority    The priority of the request.
+         * @param sequence    The arrival order of the request.
+         */
+        WaitingRequest(ReservingRoom reservation, int priority, long sequence) {
+            this.reservation = reservation;
+            this.startTime = reservation.getStartTime();
+            this.endTime = reservation.getEndTime();
+            this.totalMembers = reservation.getTotalMembers();
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Constructs a probe used to look up waiting requests by start time.
+         *
+         * @param startTime The start time to look up.
+         * @param sequence  The sequence to order the probe by among equal start times.
+         */
+        WaitingRequest(LocalDateTime startTime, long sequence) {
+            this.reservation = null;
+            this.startTime = startTime;
+            this.endTime = startTime;
+            this.totalMembers = 0;
+            this.priority = 0;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Retrieves the length of the requested time window.
+         *
+         * @return The duration of the request.
+         */
+        Duration duration() {
+            return Duration.between(startTime, endTime);
+        }
+
+        /**
+         * Checks if this request should be served before the other one.
+         *
+         * @param other The request to compare with.
+         * @return True if this request has a higher priority, or the same priority and arrived earlier.
+         */
+        boolean isServedBefore(WaitingRequest other) {
+            if (priority != other.priority) {
+                return priority > other.priority;
+            }
+            return sequence < other.sequence;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package floormanagement.cluster;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import floormanagement.booking.ReservingRoom;
+import floormanagement.floor.Room;
+import floormanagement.syncmanagement.StateCodec;
+
+/**
+ * Partitions the rooms and their reservations across booking nodes by room identifier,
+ * routing every request to the node owning the room.
+ * Requests reach the nodes as {@link NodeProtocol} messages, so rooms and reservations handed to
+ * the cluster are copied to their node, and later changes have to go through the cluster as well.
+ * When a node joins or leaves, the rooms whose owner changed are moved between nodes as encoded state.
+ * If a room can't be moved, the rooms moved so far are moved back and the membership change is undone.
+ * Requests wait while a rebalance is in progress, so they never reach a node that no longer owns the room.
+ */
+public class BookingCluster {
+    private static final int VIRTUAL_NODES = 64;
+
+    private final Transport transport;
+    private final ConsistentHashRing ring;
+    private final ReadWriteLock rebalanceLock;
+
+    /**
+     * Constructs a BookingCluster without any nodes.
+     *
+     * @param transport The transport used to reach the nodes.
+     */
+    public BookingCluster(Transport transport) {
+        this.transport = transport;
+        this.ring = new ConsistentHashRing(VIRTUAL_NODES);
+        this.rebalanceLock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Adds a node to the cluster and moves to it the rooms it now owns.
+     *
+     * @param node The joining node.
+     * @throws IllegalStateException If a room couldn't be moved, in which case the node has not joined.
+     */
+    public void join(BookingNode node) throws IllegalStateException {
+        rebalanceLock.writeLock().lock();
+        try {
+            transport.connect(node);
+            List<String> existing = new ArrayList<>(ring.getNodes());
+            ring.addNode(node.getId());
+            Map<Integer, String> moved = new LinkedHashMap<>();
+            try {
+                for (String nodeId : existing) {
+                    for (int roomId : listRooms(nodeId)) {
+                        if (!ring.ownerOf(roomId).equals(nodeId)) {
+                            moved.put(roomId, move(roomId, nodeId));
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                ring.removeNode(node.getId());
+                moveBack(moved);
+                transport.disconnect(node.getId());
+                throw new IllegalStateException("Node " + node.getId() + " couldn't join :- " + e.getMessage());
+            }
+            System.out.println("Node " + node.getId() + " joined the booking cluster");
+        } finally {
+            rebalanceLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a node from the cluster, handing its rooms over to their new owners.
+     *
+     * @param nodeId The identifier of the leaving node.
+     * @throws IllegalStateException If the node is the last one and still owns rooms, or if one of its
+     *                               rooms couldn't be moved, in which case the node stays in the cluster.
+     */
+    public void leave(String nodeId) throws IllegalStateException {
+        rebalanceLock.writeLock().lock();
+        try {
+            List<Integer> roomIds = listRooms(nodeId);
+            if (!roomIds.isEmpty() && ring.getNodes().size() == 1) {
+                throw new IllegalStateException("Last booking node can't leave while it still owns rooms");
+            }
+            ring.removeNode(nodeId);
+            Map<Integer, String> moved = new LinkedHashMap<>();
+            try {
+                for (int roomId : roomIds) {
+                    moved.put(roomId, move(roomId, nodeId));
+                }
+            } catch (RuntimeException e) {
+                ring.addNode(nodeId);
+                moveBack(moved);
+                throw new IllegalStateException("Node " + nodeId + " couldn't leave :- " + e.getMessage());
+            }
+            transport.disconnect(nodeId);
+            System.out.println("Node " + nodeId + " left the booking cluster");
+        } finally {
+            rebalanceLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a copy of a room and its reservations to the node owning it.
+     *
+     * @param room The room to be added.
+     */
+    public void addRoom(Room room) {
+        route(room.getRoomId(), NodeProtocol.encode(NodeProtocol.HOST_ROOM, out -> {
+            StateCodec.writeRoom(out, room);
+            out.writeInt(0);
+        }));
+    }
+
+    /**
+     * Books a room on the node owning it.
+     *
+     * @param roomId      The identifier of the room.
+     * @param reservation The reservation to be booked.
+     * @return True if the room has been booked, false if it is unavailable or too small.
+     */
+    public boolean book(int roomId, ReservingRoom reservation) {
+        return book(roomId, reservation, false, 0);
+    }
+
+    /**
+     * Books a room on the node owning it, queueing the request on the room's waitlist if the room
+     * is large enough but already booked. The request only ever gets the room it asked for,
+     * and stays queued for it when the room moves to another node.
+     *
+     * @param roomId      The identifier of the room.
+     * @param reservation The reservation to be booked.
+     * @param priority    The priority of the request on the waitlist, higher is served first.
+     * @return True if the room has been booked, false if the request has been queued or the room is too small.
+     */
+    public boolean book(int roomId, ReservingRoom reservation, int priority) {
+        return book(roomId, reservation, true, priority);
+    }
+
+    /**
+     * Cancels a reservation of a room on the node owning it, offering the released time
+     * to the requests waiting for the room.
+     *
+     * @param roomId        The identifier of the room.
+     * @param reservationId The identifier of the reservation to be cancelled.
+     * @return True if the room held the reservation, false otherwise.
+     */
+    public boolean cancel(int roomId, int reservationId) {
+        return route(roomId, NodeProtocol.encode(NodeProtocol.CANCEL, out -> {
+            out.writeInt(roomId);
+            out.writeInt(reservationId);
+        })).get() != 0;
+    }
+
+    /**
+     * Checks on the node owning it if a room is available during the specified time period.
+     *
+     * @param roomId The identifier of the room.
+     * @param start  The start time of the period to check.
+     * @param end    The end time of the period to check.
+     * @return True if the room is available, false otherwise.
+     */
+    public boolean isAvailable(int roomId, LocalDateTime start, LocalDateTime end) {
+        return route(roomId, NodeProtocol.encode(NodeProtocol.IS_AVAILABLE, out -> {
+            out.writeInt(roomId);
+            StateCodec.writeString(out, start.toString());
+            StateCodec.writeString(out, end.toString());
+        })).get() != 0;
+    }
+
+    /**
+     * Retrieves the identifier of the node owning a room.
+     *
+     * @param roomId The identifier of the room.
+     * @return The identifier of the owning node.
+     */
+    public String ownerOf(int roomId) {
+        return ring.ownerOf(roomId);
+    }
+
+    /**
+     * Sends a booking request to the node owning the room.
+     *
+     * @param roomId      The identifier of the room.
+     * @param reservation The reservation to be booked.
+     * @param queue       Whether the node should queue the request if the room can't be booked.
+     * @param priority    The priority of the request on the waitlist.
+     * @return True if the room has been booked, false otherwise.
+     */
+    private boolean book(int roomId, ReservingRoom reservation, boolean queue, int priority) {
+        return route(roomId, NodeProtocol.encode(NodeProtocol.BOOK, out -> {
+            out.writeInt(roomId);
+            out.writeBoolean(queue);
+            out.writeInt(priority);
+            StateCodec.writeReservation(out, reservation);
+        })).get() != 0;
+    }
+
+    /**
+     * Sends a request to the node owning a room.
+     *
+     * @param roomId  The identifier of the room.
+     * @param request The encoded request.
+     * @return The result of the request.
+     */
+    private ByteBuffer route(int roomId, byte[] request) {
+        rebalanceLock.readLock().lock();
+        try {
+            return send(ring.ownerOf(roomId), request);
+        } finally {
+            rebalanceLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sends a request to a node and decodes its response.
+     *
+     * @param nodeId  The identifier of the node.
+     * @param request The encoded request.
+     * @return The result of the request.
+     */
+    private ByteBuffer send(String nodeId, byte[] request) {
+        return NodeProtocol.result(nodeId, transport.send(nodeId, request));
+    }
+
+    /**
+     * Retrieves the identifiers of the rooms a node owns.
+     *
+     * @param nodeId The identifier of the node.
+     * @return The room identifiers.
+     */
+    private List<Integer> listRooms(String nodeId) {
+        ByteBuffer result = send(nodeId, NodeProtocol.encode(NodeProtocol.LIST_ROOMS, out -> { }));
+        int count = result.getInt();
+        List<Integer> roomIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            roomIds.add(result.getInt());
+        }
+        return roomIds;
+    }
+
+    /**
+     * Moves a room from its previous node to the node now owning it, as the encoded state
+     * released by the previous node. If the new owner can't host the room, the room is
+     * handed back to the previous node so it is never lost.
+     *
+     * @param roomId       The identifier of the room.
+     * @param previousNode The identifier of the node currently holding the room.
+     * @return The identifier of the node now holding the room.
+     * @throws IllegalStateException If the new owner couldn't host the room.
+     */
+    private String move(int roomId, String previousNode) throws IllegalStateException {
+        ByteBuffer released = send(previousNode, NodeProtocol.encode(NodeProtocol.RELEASE_ROOM,
+                out -> out.writeInt(roomId)));
+        if (released.get() == 0) {
+            return previousNode;
+        }
+        byte[] room = new byte[released.remaining()];
+        released.get(room);
+        byte[] host = NodeProtocol.encode(NodeProtocol.HOST_ROOM, out -> out.write(room));
+        String owner = ring.ownerOf(roomId);
+        try {
+            send(owner, host);
+        } catch (RuntimeException e) {
+            send(previousNode, host);
+            throw new IllegalStateException("Room " + roomId + " couldn't be moved to node " + owner + " :- "
+                    + e.getMessage());
+        }
+        return owner;
+    }
+
+    /**
+     * Moves rooms back to their owners after a failed rebalance, once the ring has been restored.
+     *
+     * @param moved The rooms moved so far, mapped to the node now holding them.
+     */
+    private void moveBack(Map<Integer, String> moved) {
+        for (Map.Entry<Integer, String> room : moved.entrySet()) {
+            try {
+                move(room.getKey(), room.getValue());
+            } catch (RuntimeException e) {
+                System.err.println("Couldn't move room " + room.getKey() + " back due to :- " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package floormanagement.cluster;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+import floormanagement.booking.ReservingRoom;
+import floormanagement.booking.Waitlist;
+import floormanagement.floor.Room;
+import floormanagement.syncmanagement.StateCodec;
+import floormanagement.users.Admin;
+
+/**
+ * A node of the booking cluster, holding the partition of rooms it owns together
+ * with their reservations and, for each room, the requests waiting for it.
+ * A room's waitlist is handed over together with the room when the room moves to another node.
+ * The cluster reaches the node through {@link #handle(byte[])}, so the node only ever
+ * works on its own copies of rooms and reservations.
+ */
+public class BookingNode {
+    private final String id;
+    private final Map<Integer, Room> rooms;
+    private final Map<Integer, Waitlist> waitlists;
+    private final IntFunction<Admin> admins;
+
+    /**
+     * Constructs a BookingNode without any rooms, that doesn't know any admins.
+     *
+     * @param id The unique identifier of the node.
+     */
+    public BookingNode(String id) {
+        this(id, adminId -> null);
+    }
+
+    /**
+     * Constructs a BookingNode without any rooms.
+     *
+     * @param id     The unique identifier of the node.
+     * @param admins Resolves the admin identifiers of received reservations, returning null for unknown ones.
+     */
+    public BookingNode(String id, IntFunction<Admin> admins) {
+        this.id = id;
+        this.rooms = new ConcurrentHashMap<>();
+        this.waitlists = new ConcurrentHashMap<>();
+        this.admins = admins;
+    }
+
+    /**
+     * Retrieves the unique identifier of the node.
+     *
+     * @return The node's identifier.
+     */
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * Retrieves the requests waiting for one of the node's rooms.
+     *
+     * @param roomId The identifier of the room.
+     * @return The room's waitlist.
+     * @throws IllegalArgumentException If the node does not own the room.
+     */
+    public Waitlist getWaitlist(int roomId) throws IllegalArgumentException {
+        ownedRoom(roomId);
+        return waitlists.computeIfAbsent(roomId, key -> new Waitlist());
+    }
+
+    /**
+     * Takes ownership of a room.
+     *
+     * @param room The room to be hosted.
+     */
+    public void host(Room room) {
+        rooms.put(room.getRoomId(), room);
+    }
+
+    /**
+     * Gives up ownership of a room, dropping the requests waiting for it.
+     *
+     * @param roomId The identifier of the room.
+     * @return The released room, or null if the node did not own it.
+     */
+    public Room release(int roomId) {
+        waitlists.remove(roomId);
+        return rooms.remove(roomId);
+    }
+
+    /**
+     * Retrieves a room owned by the node.
+     *
+     * @param roomId The identifier of the room.
+     * @return The room, or null if the node does not own it.
+     */
+    public Room getRoom(int roomId) {
+        return rooms.get(roomId);
+    }
+
+    /**
+     * Retrieves the identifiers of the rooms owned by the node.
+     *
+     * @return A copy of the room identifiers.
+     */
+    public List<Integer> getRoomIds() {
+        return new ArrayList<>(rooms.keySet());
+    }
+
+    /**
+     * Books one of the node's rooms.
+     *
+     * @param roomId      The identifier of the room.
+     * @param reservation The reservation to be booked.
+     * @return True if the room has been booked, false if it is unavailable or too small.
+     * @throws IllegalArgumentException If the node does not own the room.
+     */
+    public boolean book(int roomId, ReservingRoom reservation) throws IllegalArgumentException {
+        return reservation.tryAssign(ownedRoom(roomId));
+    }
+
+    /**
+     * Books one of the node's rooms like {@link #book(int, ReservingRoom)}, and queues the request
+     * on the room's waitlist if the room is large enough but already booked.
+     * A queued request is only ever assigned to the room it asked for.
+     *
+     * @param roomId      The identifier of the room.
+     * @param reservation The reservation to be booked.
+     * @param priority    The priority of the request on the waitlist, higher is served first.
+     * @return True if the room has been booked, false if the request has been queued or the room is too small.
+     * @throws IllegalArgumentException If the node does not own the room.
+     */
+    public boolean book(int roomId, ReservingRoom reservation, int priority) throws IllegalArgumentException {
+        Room room = ownedRoom(roomId);
+        if (reservation.tryAssign(room)) {
+            return true;
+        }
+        if (room.hasEnoughCapacity(reservation.getTotalMembers())) {
+            getWaitlist(roomId).enqueue(reservation, priority);
+        }
+        return false;
+    }
+
+    /**
+     * Cancels a reservation of one of the node's rooms through the reservation itself, so it
+     * stops listing the room as booked, and offers the released time to the room's waitlist.
+     * A reservation still waiting for the room is taken off the waitlist instead.
+     *
+     * @param roomId        The identifier of the room.
+     * @param reservationId The identifier of the reservation to be cancelled.
+     * @return True if the room held the reservation, false otherwise.
+     * @throws IllegalArgumentException If the node does not own the room.
+     */
+    public boolean cancel(int roomId, int reservationId) throws IllegalArgumentException {
+        ReservingRoom held = ownedRoom(roomId).findReservation(reservationId);
+        Waitlist waitlist = getWaitlist(roomId);
+        if (held == null) {
+            ReservingRoom waiting = waitlist.findReservation(reservationId);
+            if (waiting != null) {
+                waitlist.remove(waiting);
+            }
+            return false;
+        }
+        held.cancel(waitlist);
+        return true;
+    }
+
+    /**
+     * Checks if one of the node's rooms is available during the specified time period.
+     *
+     * @param roomId The identifier of the room.
+     * @param start  The start time of the period to check.
+     * @param end    The end time of the period to check.
+     * @return True if the room is available, false otherwise.
+     * @throws IllegalArgumentException If the node does not own the room.
+     */
+    public boolean isAvailable(int roomId, LocalDateTime start, LocalDateTime end) throws IllegalArgumentException {
+        return ownedRoom(roomId).isAvailable(start, end);
+    }
+
+    /**
+     * Handles a request received from the cluster.
+     *
+     * @param request The encoded request, as described by {@link NodeProtocol}.
+     * @return The encoded response.
+     */
+    public byte[] handle(byte[] request) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(request);
+            byte type = in.get();
+            switch (type) {
+                case NodeProtocol.HOST_ROOM:
+                    hostRoomState(in);
+                    return NodeProtocol.encode(NodeProtocol.OK, out -> { });
+                case NodeProtocol.RELEASE_ROOM:
+                    int releasedId = in.getInt();
+                    Waitlist releasedWaitlist = waitlists.get(releasedId);
+                    Room released = release(releasedId);
+                    return NodeProtocol.encode(NodeProtocol.OK, out -> {
+                        out.writeBoolean(released != null);
+                        if (released != null) {
+                            writeRoomState(out, released, releasedWaitlist);
+                        }
+                    });
+                case NodeProtocol.LIST_ROOMS:
+                    List<Integer> roomIds = getRoomIds();
+                    return NodeProtocol.encode(NodeProtocol.OK, out -> {
+                        out.writeInt(roomIds.size());
+                        for (int roomId : roomIds) {
+                            out.writeInt(roomId);
+                        }
+                    });
+                case NodeProtocol.BOOK:
+                    Room room = ownedRoom(in.getInt());
+                    boolean queue = in.get() != 0;
+                    int priority = in.getInt();
+                    ReservingRoom reservation = StateCodec.readReservation(in, room, admins);
+                    boolean booked = queue ? book(room.getRoomId(), reservation, priority)
+                            : book(room.getRoomId(), reservation);
+                    return NodeProtocol.encode(NodeProtocol.OK, out -> out.writeBoolean(booked));
+                case NodeProtocol.CANCEL:
+                    boolean cancelled = cancel(in.getInt(), in.getInt());
+                    return NodeProtocol.encode(NodeProtocol.OK, out -> out.writeBoolean(cancelled));
+                case NodeProtocol.IS_AVAILABLE:
+                    boolean available = isAvailable(in.getInt(), LocalDateTime.parse(StateCodec.readString(in)),
+                            LocalDateTime.parse(StateCodec.readString(in)));
+                    return NodeProtocol.encode(NodeProtocol.OK, out -> out.writeBoolean(available));
+                default:
+                    return NodeProtocol.error(NodeProtocol.REJECTED, "Unknown request type " + type);
+            }
+        } catch (IllegalArgumentException e) {
+            return NodeProtocol.error(NodeProtocol.REJECTED, e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Node " + id + " couldn't handle request due to :- " + e);
+            return NodeProtocol.error(NodeProtocol.FAILED, e.toString());
+        }
+    }
+
+    /**
+     * Writes a room together with the requests waiting for it.
+     *
+     * @param out      The stream to write to.
+     * @param room     The room.
+     * @param waitlist The room's waitlist, may be null if no request is waiting.
+     * @throws IOException If writing fails.
+     */
+    private static void writeRoomState(DataOutputStream out, Room room, Waitlist waitlist) throws IOException {
+        StateCodec.writeRoom(out, room);
+        Map<ReservingRoom, Integer> waiting = waitlist != null ? waitlist.getWaiting()
+                : new HashMap<ReservingRoom, Integer>();
+        out.writeInt(waiting.size());
+        for (Map.Entry<ReservingRoom, Integer> request : waiting.entrySet()) {
+            out.writeInt(request.getValue());
+            StateCodec.writeReservation(out, request.getKey());
+        }
+    }
+
+    /**
+     * Takes ownership of a room written by {@link #writeRoomState}, queueing its waiting requests again.
+     *
+     * @param in The buffer to read from.
+     */
+    private void hostRoomState(ByteBuffer in) {
+        Room room = StateCodec.readRoom(in, admins, new HashMap<Integer, ReservingRoom>());
+        host(room);
+        int waitingCount = in.getInt();
+        for (int i = 0; i < waitingCount; i++) {
+            int priority = in.getInt();
+            getWaitlist(room.getRoomId()).enqueue(StateCodec.readReservation(in, room, admins), priority);
+        }
+    }
+
+    /**
+     * Retrieves a room the node must own.
+     *
+     * @param roomId The identifier of the room.
+     * @return The room.
+     * @throws IllegalArgumentException If the node does not own the room.
+     */
+    private Room ownedRoom(int roomId) throws IllegalArgumentException {
+        Room room = rooms.get(roomId);
+        if (room == null) {
+            throw new IllegalArgumentException("Room " + roomId + " is not owned by node " + id);
+        }
+        return room;
+    }
+}
@@ -0,0 +1,105 @@
+package floormanagement.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Maps room identifiers to the nodes owning them using consistent hashing.
+ * Each node is placed on the ring several times, so that rooms spread evenly and only
+ * the rooms next to a joining or leaving node change owner.
+ */
+public class ConsistentHashRing {
+    private final int virtualNodes;
+    private final NavigableMap<Long, String> ring;
+    private final Set<String> nodes;
+
+    /**
+     * Constructs an empty ConsistentHashRing.
+     *
+     * @param virtualNodes The number of positions each node takes on the ring.
+     * @throws IllegalArgumentException If the number of virtual nodes is not positive.
+     */
+    public ConsistentHashRing(int virtualNodes) throws IllegalArgumentException {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Number of virtual nodes must be positive");
+        }
+        this.virtualNodes = virtualNodes;
+        this.ring = new TreeMap<>();
+        this.nodes = new LinkedHashSet<>();
+    }
+
+    /**
+     * Places a node on the ring.
+     *
+     * @param nodeId The identifier of the node.
+     */
+    public synchronized void addNode(String nodeId) {
+        if (nodes.add(nodeId)) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(nodeId + "#" + i), nodeId);
+            }
+        }
+    }
+
+    /**
+     * Removes a node from the ring.
+     *
+     * @param nodeId The identifier of the node.
+     */
+    public synchronized void removeNode(String nodeId) {
+        if (nodes.remove(nodeId)) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.remove(hash(nodeId + "#" + i));
+            }
+        }
+    }
+
+    /**
+     * Retrieves the identifiers of the nodes on the ring.
+     *
+     * @return A copy of the node identifiers.
+     */
+    public synchronized Set<String> getNodes() {
+        return new LinkedHashSet<>(nodes);
+    }
+
+    /**
+     * Retrieves the node owning the given room.
+     *
+     * @param roomId The identifier of the room.
+     * @return The identifier of the owning node.
+     * @throws IllegalStateException If there is no node on the ring.
+     */
+    public synchronized String ownerOf(int roomId) throws IllegalStateException {
+        if (ring.isEmpty()) {
+            throw new IllegalStateException("No booking node available");
+        }
+        Map.Entry<Long, String> owner = ring.ceilingEntry(hash("room-" + roomId));
+        return owner != null ? owner.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * Hashes a key onto the ring.
+     *
+     * @param key The key to hash.
+     * @return The position of the key on the ring.
+     */
+    private static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < 8; i++) {
+                hash = (hash << 8) | (digest[i] & 0xff);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not supported :- " + e.getMessage());
+        }
+    }
+}
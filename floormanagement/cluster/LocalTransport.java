@@ -0,0 +1,65 @@
+package floormanagement.cluster;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * An in-process stand-in for a network transport, letting several booking nodes run in one JVM.
+ * Each node handles its requests one at a time on its own thread, like a remote node would,
+ * and requests and responses are copied so that nothing but bytes is shared with the node.
+ */
+public class LocalTransport implements Transport {
+    private final Map<String, BookingNode> nodes;
+    private final Map<String, ExecutorService> inboxes;
+
+    /**
+     * Constructs a LocalTransport without any connected nodes.
+     */
+    public LocalTransport() {
+        this.nodes = new ConcurrentHashMap<>();
+        this.inboxes = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void connect(BookingNode node) {
+        nodes.put(node.getId(), node);
+        inboxes.computeIfAbsent(node.getId(), nodeId -> Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "booking-node-" + nodeId);
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    @Override
+    public void disconnect(String nodeId) {
+        nodes.remove(nodeId);
+        ExecutorService inbox = inboxes.remove(nodeId);
+        if (inbox != null) {
+            inbox.shutdown();
+        }
+    }
+
+    @Override
+    public byte[] send(String nodeId, byte[] request) throws IllegalStateException {
+        BookingNode node = nodes.get(nodeId);
+        ExecutorService inbox = inboxes.get(nodeId);
+        if (node == null || inbox == null) {
+            throw new IllegalStateException("Booking node " + nodeId + " is unreachable");
+        }
+        byte[] copy = request.clone();
+        try {
+            return inbox.submit(() -> node.handle(copy)).get().clone();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling node " + nodeId);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Call to node " + nodeId + " failed :- " + e.getCause().getMessage());
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Booking node " + nodeId + " is unreachable");
+        }
+    }
+}
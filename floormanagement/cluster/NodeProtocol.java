@@ -0,0 +1,110 @@
+package floormanagement.cluster;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import floormanagement.syncmanagement.StateCodec;
+
+/**
+ * The messages exchanged between the cluster and its booking nodes.
+ * A request is a type byte followed by the request's fields, and a response is a status byte
+ * followed by the result, or by an error message if the request failed. Rooms and reservations
+ * are encoded with {@link StateCodec}, the same encoding the snapshots use.
+ * <ul>
+ * <li>{@code HOST_ROOM room waiting} answers nothing. The waiting requests of the room are
+ * written as their count followed by the priority and reservation of each, in arrival order.</li>
+ * <li>{@code RELEASE_ROOM roomId} answers whether the node owned the room, followed by the room
+ * and its waiting requests.</li>
+ * <li>{@code LIST_ROOMS} answers the number of owned rooms followed by their identifiers.</li>
+ * <li>{@code BOOK roomId queue priority reservation} answers whether the room has been booked.</li>
+ * <li>{@code CANCEL roomId reservationId} answers whether the room held the reservation.</li>
+ * <li>{@code IS_AVAILABLE roomId start end} answers whether the room is available.</li>
+ * </ul>
+ */
+final class NodeProtocol {
+    static final byte HOST_ROOM = 1;
+    static final byte RELEASE_ROOM = 2;
+    static final byte LIST_ROOMS = 3;
+    static final byte BOOK = 4;
+    static final byte CANCEL = 5;
+    static final byte IS_AVAILABLE = 6;
+
+    static final byte OK = 0;
+    static final byte REJECTED = 1;
+    static final byte FAILED = 2;
+
+    /**
+     * Prevents instantiation, the protocol only has static members.
+     */
+    private NodeProtocol() {
+    }
+
+    /**
+     * Writes the fields of a message.
+     */
+    interface Body {
+
+        /**
+         * Writes the fields to the message.
+         *
+         * @param out The stream to write to.
+         * @throws IOException If writing fails.
+         */
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Encodes a request or a response.
+     *
+     * @param head The request type or response status.
+     * @param body Writes the fields following the head.
+     * @return The encoded message.
+     */
+    static byte[] encode(byte head, Body body) {
+        try {
+            ByteArrayOutputStream message = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(message);
+            out.writeByte(head);
+            body.write(out);
+            out.flush();
+            return message.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Couldn't encode message due to :- " + e.getMessage());
+        }
+    }
+
+    /**
+     * Encodes the response to a request that failed.
+     *
+     * @param status  The status, either {@link #REJECTED} or {@link #FAILED}.
+     * @param message The reason of the failure.
+     * @return The encoded response.
+     */
+    static byte[] error(byte status, String message) {
+        return encode(status, out -> StateCodec.writeString(out, message));
+    }
+
+    /**
+     * Decodes a response, rethrowing the error it carries if the request failed.
+     *
+     * @param nodeId   The identifier of the node that answered.
+     * @param response The encoded response.
+     * @return The result following the status.
+     * @throws IllegalArgumentException If the node rejected the request.
+     * @throws IllegalStateException    If the node failed to handle the request.
+     */
+    static ByteBuffer result(String nodeId, byte[] response) throws IllegalArgumentException, IllegalStateException {
+        ByteBuffer in = ByteBuffer.wrap(response);
+        byte status = in.get();
+        if (status == OK) {
+            return in;
+        }
+        String message = StateCodec.readString(in);
+        if (status == REJECTED) {
+            throw new IllegalArgumentException(message);
+        }
+        throw new IllegalStateException("Node " + nodeId + " failed :- " + message);
+    }
+}
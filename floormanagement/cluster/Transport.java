@@ -0,0 +1,32 @@
+package floormanagement.cluster;
+
+/**
+ * Carries encoded requests from the cluster to the booking nodes and their responses back.
+ * Only bytes cross the transport, so it can be backed by a real network connection.
+ */
+public interface Transport {
+
+    /**
+     * Makes a node reachable through the transport.
+     *
+     * @param node The node to be connected.
+     */
+    void connect(BookingNode node);
+
+    /**
+     * Makes a node unreachable through the transport.
+     *
+     * @param nodeId The identifier of the node to be disconnected.
+     */
+    void disconnect(String nodeId);
+
+    /**
+     * Sends a request to a node and waits for its response.
+     *
+     * @param nodeId  The identifier of the node.
+     * @param request The encoded request.
+     * @return The encoded response.
+     * @throws IllegalStateException If the node is unreachable.
+     */
+    byte[] send(String nodeId, byte[] request) throws IllegalStateException;
+}
@@ -4,6 +4,8 @@ import java.util.Map;
 import java.util.List;
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.time.LocalDateTime;
 import floormanagement.users.Admin;
 import floormanagement.floor.Room;
@@ -12,6 +14,8 @@ import floormanagement.floor.Room;
  * Represents a floor plan in the floor management system.
  */
 public class FloorPlan {
+    private static final double GRID_CELL_SIZE = 5.0;
+
     private final int id;
     public final String planName;
     private float version;
@@ -21,6 +25,8 @@ public class FloorPlan {
     private final Admin creator;
     private LocalDateTime lastModified;
     private final RoomCache roomsMap1;
+    private final List<ReservationListener> listeners;
+    private final RoomGridIndex spatialIndex;
     private int priority;
 
     /**
@@ -45,6 +51,8 @@ public class FloorPlan {
         this.creator = creator;
         this.lastModified = lastModified;
         this.roomsMap1 = new RoomCache();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.spatialIndex = new RoomGridIndex(GRID_CELL_SIZE);
         this.priority = priority;
     }
 
@@ -214,6 +222,11 @@ public class FloorPlan {
     public void addRoom(Room room) {
         rooms.add(room);
         roomsMap1.add("Room number - " + room.getId(), room);
+        room.setFloorPlanId(this.id);
+        spatialIndex.add(room);
+        for (ReservationListener listener : listeners) {
+            room.addListener(listener);
+        }
     }
 
     /**
@@ -224,6 +237,72 @@ public class FloorPlan {
     public void removeRoom(Room room) {
         rooms.remove(room);
         roomsMap1.remove("Room number - " + room.getId());
+        spatialIndex.remove(room);
+        for (ReservationListener listener : listeners) {
+            room.removeListener(listener);
+        }
+    }
+
+    /**
+     * Returns the rooms of the floor plan that fit the given number of members and are available
+     * during the given period, lazily and nearest first. Rooms without coordinates are skipped.
+     * 
+     * @param x            The horizontal coordinate to search from.
+     * @param y            The vertical coordinate to search from.
+     * @param totalMembers The number of members the room must fit.
+     * @param start        The start of the period the room must be available.
+     * @param end          The end of the period the room must be available.
+     * @return An iterator over the matching rooms, nearest first.
+     */
+    public Iterator<Room> nearestAvailableRooms(double x, double y, int totalMembers, LocalDateTime start,
+                                                LocalDateTime end) {
+        return spatialIndex.nearestAvailable(x, y, totalMembers, start, end);
+    }
+
+    /**
+     * Retrieves the k rooms of the floor plan nearest to the given point that fit the given
+     * number of members and are available during the given period.
+     * 
+     * @param x            The horizontal coordinate to search from.
+     * @param y            The vertical coordinate to search from.
+     * @param k            The maximum number of rooms to return.
+     * @param totalMembers The number of members the room must fit.
+     * @param start        The start of the period the room must be available.
+     * @param end          The end of the period the room must be available.
+     * @return Up to k matching rooms, nearest first.
+     */
+    public List<Room> findNearestAvailableRooms(double x, double y, int k, int totalMembers, LocalDateTime start,
+                                                LocalDateTime end) {
+        List<Room> nearest = new ArrayList<>();
+        Iterator<Room> iterator = nearestAvailableRooms(x, y, totalMembers, start, end);
+        while (nearest.size() < k && iterator.hasNext()) {
+            nearest.add(iterator.next());
+        }
+        return nearest;
+    }
+
+    /**
+     * Registers a listener on every current and future room of the floor plan.
+     * 
+     * @param listener The listener to be notified of reservation changes.
+     */
+    public void addReservationListener(ReservationListener listener) {
+        listeners.add(listener);
+        for (Room room : rooms) {
+            room.addListener(listener);
+        }
+    }
+
+    /**
+     * Unregisters a listener from every room of the floor plan.
+     * 
+     * @param listener The listener to be unregistered.
+     */
+    public void removeReservationListener(ReservationListener listener) {
+        listeners.remove(listener);
+        for (Room room : rooms) {
+            room.removeListener(listener);
+        }
     }
 
     /**
@@ -0,0 +1,53 @@
+package floormanagement.floor;
+
+import java.time.LocalDateTime;
+
+import floormanagement.booking.ReservingRoom;
+
+/**
+ * Receives the changes made to the reservations of a room.
+ * Listeners are called on the thread making the change, so they must return quickly.
+ */
+public interface ReservationListener {
+
+    /**
+     * Called after a reservation has been added to a room.
+     *
+     * @param room        The room the reservation was added to.
+     * @param reservation The added reservation.
+     */
+    void onReserved(Room room, ReservingRoom reservation);
+
+    /**
+     * Called after a reservation has been cancelled and removed from a room.
+     *
+     * @param room        The room the reservation was removed from.
+     * @param reservation The cancelled reservation.
+     */
+    void onReleased(Room room, ReservingRoom reservation);
+
+    /**
+     * Called after a reservation of a room has been shortened.
+     *
+     * @param room            The room holding the reservation.
+     * @param reservation     The shortened reservation, already carrying its new end time.
+     * @param previousEndTime The end time of the reservation before it was shortened.
+     */
+    void onShortened(Room room, ReservingRoom reservation, LocalDateTime previousEndTime);
+
+    /**
+     * Called after the members of a reservation of a room have checked in.
+     *
+     * @param room        The room holding the reservation.
+     * @param reservation The checked-in reservation.
+     */
+    void onCheckedIn(Room room, ReservingRoom reservation);
+
+    /**
+     * Called after an expired reservation has been moved out of a room into the archive.
+     *
+     * @param room        The room the reservation was removed from.
+     * @param reservation The expired reservation.
+     */
+    void onExpired(Room room, ReservingRoom reservation);
+}
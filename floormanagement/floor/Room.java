@@ -1,8 +1,16 @@
 package floormanagement.floor;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import floormanagement.booking.ReservationArchive;
+import floormanagement.booking.ReservingRoom;
 
 /**
  * Represents a room within a floor plan.
@@ -13,8 +21,12 @@ public class Room {
     private final int capacity;
     private final String location;
     private final String description;
-    private final List<ReservingRoom> reservedList;
+    private final double x;
+    private final double y;
+    private final NavigableSet<ReservingRoom> reservedList;
+    private final List<ReservationListener> listeners;
     private boolean isBooked = false; // This should not be final as it can change
+    private int floorPlanId;
 
     /**
      * Constructs a new Room object with the provided parameters.
@@ -25,11 +37,29 @@ public class Room {
      * @param location    The location of the room.
      */
     public Room(int id, String description, int capacity, String location) {
+        this(id, description, capacity, location, Double.NaN, Double.NaN);
+    }
+
+    /**
+     * Constructs a new Room object placed at the given coordinates of its floor plan.
+     *
+     * @param id          The unique identifier for the room.
+     * @param description A brief description of the room.
+     * @param capacity    The maximum capacity of the room.
+     * @param location    The location of the room.
+     * @param x           The horizontal coordinate of the room within the floor plan.
+     * @param y           The vertical coordinate of the room within the floor plan.
+     */
+    public Room(int id, String description, int capacity, String location, double x, double y) {
         this.id = id;
         this.capacity = capacity;
         this.location = location;
         this.description = description;
-        this.reservedList = new ArrayList<>();
+        this.x = x;
+        this.y = y;
+        this.reservedList = new ConcurrentSkipListSet<>(
+                Comparator.comparing(ReservingRoom::getStartTime).thenComparingInt(ReservingRoom::getId));
+        this.listeners = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -41,6 +71,78 @@ public class Room {
         return this.id;
     }
 
+    /**
+     * Retrieves the horizontal coordinate of the room within the floor plan.
+     *
+     * @return The horizontal coordinate, or NaN if the room has no coordinates.
+     */
+    public double getX() {
+        return this.x;
+    }
+
+    /**
+     * Retrieves the vertical coordinate of the room within the floor plan.
+     *
+     * @return The vertical coordinate, or NaN if the room has no coordinates.
+     */
+    public double getY() {
+        return this.y;
+    }
+
+    /**
+     * Checks if the room has been placed at coordinates within its floor plan.
+     *
+     * @return True if the room has coordinates, false otherwise.
+     */
+    public boolean hasCoordinates() {
+        return !Double.isNaN(x) && !Double.isNaN(y);
+    }
+
+    /**
+     * Retrieves the identifier of the floor plan the room belongs to.
+     *
+     * @return The floor plan's identifier.
+     */
+    public int getFloorPlanId() {
+        return this.floorPlanId;
+    }
+
+    /**
+     * Sets the identifier of the floor plan the room belongs to.
+     *
+     * @param floorPlanId The floor plan's identifier.
+     */
+    void setFloorPlanId(int floorPlanId) {
+        this.floorPlanId = floorPlanId;
+    }
+
+    /**
+     * Registers a listener to be notified of changes to the room's reservations.
+     *
+     * @param listener The listener to be registered.
+     */
+    public void addListener(ReservationListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener from the room's reservation changes.
+     *
+     * @param listener The listener to be unregistered.
+     */
+    public void removeListener(ReservationListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Retrieves the maximum capacity of the room.
+     *
+     * @return The room's capacity.
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
     /**
      * Marks the room as booked.
      */
@@ -67,6 +169,122 @@ public class Room {
         return description;
     }
 
+    /**
+     * Retrieves the location of the room.
+     *
+     * @return The location of the room.
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * Adds a reservation to the room's current and upcoming bookings.
+     *
+     * @param reservation The reservation to be added.
+     */
+    public void addReservation(ReservingRoom reservation) {
+        if (reservedList.add(reservation)) {
+            for (ReservationListener listener : listeners) {
+                listener.onReserved(this, reservation);
+            }
+        }
+    }
+
+    /**
+     * Removes a reservation from the room.
+     *
+     * @param reservation The reservation to be removed.
+     * @return True if the reservation was held by the room, false otherwise.
+     */
+    public boolean cancelReservation(ReservingRoom reservation) {
+        if (!reservedList.remove(reservation)) {
+            return false;
+        }
+        for (ReservationListener listener : listeners) {
+            listener.onReleased(this, reservation);
+        }
+        return true;
+    }
+
+    /**
+     * Notifies the room's listeners that one of its reservations has been shortened.
+     *
+     * @param reservation     The shortened reservation.
+     * @param previousEndTime The end time of the reservation before it was shortened.
+     */
+    public void reservationShortened(ReservingRoom reservation, LocalDateTime previousEndTime) {
+        if (reservedList.contains(reservation)) {
+            for (ReservationListener listener : listeners) {
+                listener.onShortened(this, reservation, previousEndTime);
+            }
+        }
+    }
+
+    /**
+     * Notifies the room's listeners that the members of one of its reservations have checked in.
+     *
+     * @param reservation The checked-in reservation.
+     */
+    public void reservationCheckedIn(ReservingRoom reservation) {
+        if (reservedList.contains(reservation)) {
+            for (ReservationListener listener : listeners) {
+                listener.onCheckedIn(this, reservation);
+            }
+        }
+    }
+
+    /**
+     * Retrieves a read-only view of the current and upcoming reservations, ordered by start time.
+     *
+     * @return The reservations still held by the room.
+     */
+    public NavigableSet<ReservingRoom> getReservations() {
+        return Collections.unmodifiableNavigableSet(reservedList);
+    }
+
+    /**
+     * Moves every reservation that ended before the given time into the archive.
+     * The reservation set is concurrent, so bookings can keep being added while this runs.
+     *
+     * @param now     The point in time before which reservations are considered expired.
+     * @param archive The archive receiving the expired reservations.
+     * @return The number of reservations archived.
+     */
+    public int archiveExpired(LocalDateTime now, ReservationArchive archive) {
+        int archived = 0;
+        Iterator<ReservingRoom> iterator = reservedList.iterator();
+        while (iterator.hasNext()) {
+            ReservingRoom reserved = iterator.next();
+            if (!reserved.getStartTime().isBefore(now)) {
+                break;
+            }
+            if (reserved.getEndTime().isBefore(now) && reservedList.remove(reserved)) {
+                archive.add(this.id, reserved);
+                archived++;
+                for (ReservationListener listener : listeners) {
+                    listener.onExpired(this, reserved);
+                }
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Retrieves a current or upcoming reservation of the room by its identifier.
+     *
+     * @param reservationId The identifier of the reservation.
+     * @return The reservation, or null if the room doesn't hold it.
+     */
+    public ReservingRoom findReservation(int reservationId) {
+        for (ReservingRoom reserved : reservedList) {
+            if (reserved.getId() == reservationId) {
+                return reserved;
+            }
+        }
+        return null;
+    }
+
     /**
      * Checks if the room is available during the specified time period.
      *
@@ -76,6 +294,9 @@ public class Room {
      */
     public boolean isAvailable(LocalDateTime start, LocalDateTime end) {
         for (ReservingRoom reserved : reservedList) {
+            if (reserved.getStartTime().isAfter(end)) {
+                break;
+            }
             if (isConflicting(start, end, reserved.getStartTime(), reserved.getEndTime())) {
                 return false;
             }
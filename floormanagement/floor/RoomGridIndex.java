@@ -0,0 +1,247 @@
+package floormanagement.floor;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A uniform grid over the coordinates of the rooms of a floor plan.
+ * Nearest-room searches visit the grid cells in rings of growing distance around the
+ * requested point, so only the rooms of the visited cells have their distance computed.
+ */
+public class RoomGridIndex {
+    private final double cellSize;
+    private final Map<Long, List<Room>> cells;
+    private int minCellX = Integer.MAX_VALUE;
+    private int minCellY = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE;
+    private int maxCellY = Integer.MIN_VALUE;
+
+    /**
+     * Constructs an empty RoomGridIndex.
+     *
+     * @param cellSize The width and height of a grid cell, in floor plan coordinates.
+     * @throws IllegalArgumentException If the cell size is not positive.
+     */
+    public RoomGridIndex(double cellSize) throws IllegalArgumentException {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("Grid cell size must be positive");
+        }
+        this.cellSize = cellSize;
+        this.cells = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Adds a room to the index. Rooms without coordinates are ignored.
+     *
+     * @param room The room to be added.
+     */
+    public synchronized void add(Room room) {
+        if (!room.hasCoordinates()) {
+            return;
+        }
+        int cellX = toCell(room.getX());
+        int cellY = toCell(room.getY());
+        cells.computeIfAbsent(key(cellX, cellY), key -> new CopyOnWriteArrayList<>()).add(room);
+        minCellX = Math.min(minCellX, cellX);
+        minCellY = Math.min(minCellY, cellY);
+        maxCellX = Math.max(maxCellX, cellX);
+        maxCellY = Math.max(maxCellY, cellY);
+    }
+
+    /**
+     * Removes a room from the index.
+     *
+     * @param room The room to be removed.
+     */
+    public synchronized void remove(Room room) {
+        if (!room.hasCoordinates()) {
+            return;
+        }
+        List<Room> cell = cells.get(key(toCell(room.getX()), toCell(room.getY())));
+        if (cell != null) {
+            cell.remove(room);
+        }
+    }
+
+    /**
+     * Returns the rooms that fit the given number of members and are available during the
+     * given period, lazily and in order of increasing distance from the given point.
+     *
+     * @param x            The horizontal coordinate to search from.
+     * @param y            The vertical coordinate to search from.
+     * @param totalMembers The number of members the room must fit.
+     * @param start        The start of the period the room must be available.
+     * @param end          The end of the period the room must be available.
+     * @return An iterator over the matching rooms, nearest first.
+     */
+    public Iterator<Room> nearestAvailable(double x, double y, int totalMembers, LocalDateTime start,
+                                            LocalDateTime end) {
+        int maxRing;
+        synchronized (this) {
+            if (minCellX > maxCellX) {
+                maxRing = -1;
+            } else {
+                int cellX = toCell(x);
+                int cellY = toCell(y);
+                maxRing = Math.max(Math.max(Math.abs(cellX - minCellX), Math.abs(cellX - maxCellX)),
+                        Math.max(Math.abs(cellY - minCellY), Math.abs(cellY - maxCellY)));
+            }
+        }
+        return new NearestIterator(x, y, totalMembers, start, end, maxRing);
+    }
+
+    /**
+     * Retrieves the grid cell a coordinate falls into.
+     *
+     * @param coordinate The coordinate.
+     * @return The index of the cell along that axis.
+     */
+    private int toCell(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    /**
+     * Combines the two cell indexes into the key of a grid cell.
+     *
+     * @param cellX The horizontal index of the cell.
+     * @param cellY The vertical index of the cell.
+     * @return The key of the cell.
+     */
+    private static long key(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xffffffffL);
+    }
+
+    /**
+     * A room found by a search, with its distance from the searched point.
+     */
+    private static class Candidate {
+        private final Room room;
+        private final double distance;
+
+        /**
+         * Constructs a Candidate for the given room.
+         *
+         * @param room     The room found.
+         * @param distance The distance of the room from the searched point.
+         */
+        Candidate(Room room, double distance) {
+            this.room = room;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * Visits the grid ring by ring, handing out a room once no unvisited cell can hold a nearer one.
+     */
+    private class NearestIterator implements Iterator<Room> {
+        private final double x;
+        private final double y;
+        private final int cellX;
+        private final int cellY;
+        private final int totalMembers;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final int maxRing;
+        private final PriorityQueue<Candidate> candidates;
+        private int nextRing;
+        private Room next;
+
+        /**
+         * Constructs a NearestIterator searching from the given point.
+         *
+         * @param x            The horizontal coordinate to search from.
+         * @param y            The vertical coordinate to search from.
+         * @param totalMembers The number of members the room must fit.
+         * @param start        The start of the period the room must be available.
+         * @param end          The end of the period the room must be available.
+         * @param maxRing      The farthest ring holding any cell of the grid.
+         */
+        NearestIterator(double x, double y, int totalMembers, LocalDateTime start, LocalDateTime end, int maxRing) {
+            this.x = x;
+            this.y = y;
+            this.cellX = toCell(x);
+            this.cellY = toCell(y);
+            this.totalMembers = totalMembers;
+            this.start = start;
+            this.end = end;
+            this.maxRing = maxRing;
+            this.candidates = new PriorityQueue<>(Comparator.comparingDouble((Candidate candidate) -> candidate.distance));
+            this.nextRing = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                Candidate nearest = candidates.peek();
+                boolean allVisited = nextRing > maxRing;
+                // Every room in an unvisited ring is at least (nextRing - 1) cells away.
+                if (nearest != null && (allVisited || nearest.distance <= (nextRing - 1) * cellSize)) {
+                    candidates.poll();
+                    if (nearest.room.isAvailable(start, end)) {
+                        next = nearest.room;
+                    }
+                } else if (allVisited) {
+                    return false;
+                } else {
+                    visitRing(nextRing++);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Room next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more available rooms");
+            }
+            Room room = next;
+            next = null;
+            return room;
+        }
+
+        /**
+         * Adds the rooms of every cell at the given ring distance from the searched cell.
+         *
+         * @param ring The distance of the ring, in cells.
+         */
+        private void visitRing(int ring) {
+            if (ring == 0) {
+                visitCell(cellX, cellY);
+                return;
+            }
+            for (int dx = -ring; dx <= ring; dx++) {
+                visitCell(cellX + dx, cellY - ring);
+                visitCell(cellX + dx, cellY + ring);
+            }
+            for (int dy = -ring + 1; dy < ring; dy++) {
+                visitCell(cellX - ring, cellY + dy);
+                visitCell(cellX + ring, cellY + dy);
+            }
+        }
+
+        /**
+         * Adds the rooms of a cell that can fit the requested number of members.
+         *
+         * @param visitedX The horizontal index of the cell.
+         * @param visitedY The vertical index of the cell.
+         */
+        private void visitCell(int visitedX, int visitedY) {
+            List<Room> cell = cells.get(key(visitedX, visitedY));
+            if (cell == null) {
+                return;
+            }
+            for (Room room : cell) {
+                if (room.hasEnoughCapacity(totalMembers)) {
+                    candidates.add(new Candidate(room, Math.hypot(room.getX() - x, room.getY() - y)));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package floormanagement.notification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Describes a change to the availability of a room, as pushed to subscribers.
+ */
+public class AvailabilityChange {
+
+    /**
+     * The kind of reservation change that affected the room's availability.
+     * A RESYNC change carries no reservation: it tells the subscriber that changes to the
+     * room had to be dropped, and that the room's availability must be read again.
+     */
+    public enum Type {
+        RESERVED,
+        RELEASED,
+        SHORTENED,
+        EXPIRED,
+        RESYNC
+    }
+
+    private final int roomId;
+    private final int floorPlanId;
+    private final Type type;
+    private final int reservationId;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final LocalDateTime occurredAt;
+
+    /**
+     * Constructs an AvailabilityChange with the specified attributes.
+     *
+     * @param roomId        The identifier of the affected room.
+     * @param floorPlanId   The identifier of the floor plan the room belongs to.
+     * @param type          The kind of change.
+     * @param reservationId The identifier of the reservation that changed.
+     * @param startTime     The start of the period whose availability changed.
+     * @param endTime       The end of the period whose availability changed.
+     */
+    public AvailabilityChange(int roomId, int floorPlanId, Type type, int reservationId, LocalDateTime startTime,
+                                LocalDateTime endTime) {
+        this.roomId = roomId;
+        this.floorPlanId = floorPlanId;
+        this.type = type;
+        this.reservationId = reservationId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    /**
+     * Creates a change telling the subscriber to read the availability of a room again.
+     *
+     * @param roomId      The identifier of the room.
+     * @param floorPlanId The identifier of the floor plan the room belongs to.
+     * @return The resync change.
+     */
+    static AvailabilityChange resync(int roomId, int floorPlanId) {
+        return new AvailabilityChange(roomId, floorPlanId, Type.RESYNC, -1, null, null);
+    }
+
+    /**
+     * Retrieves the identifier of the affected room.
+     *
+     * @return The room's identifier.
+     */
+    public int getRoomId() {
+        return this.roomId;
+    }
+
+    /**
+     * Retrieves the identifier of the floor plan the room belongs to.
+     *
+     * @return The floor plan's identifier.
+     */
+    public int getFloorPlanId() {
+        return this.floorPlanId;
+    }
+
+    /**
+     * Retrieves the kind of change.
+     *
+     * @return The type of the change.
+     */
+    public Type getType() {
+        return this.type;
+    }
+
+    /**
+     * Retrieves the identifier of the reservation that changed.
+     *
+     * @return The reservation's identifier.
+     */
+    public int getReservationId() {
+        return this.reservationId;
+    }
+
+    /**
+     * Retrieves the start of the period whose availability changed.
+     *
+     * @return The start of the period.
+     */
+    public LocalDateTime getStartTime() {
+        return this.startTime;
+    }
+
+    /**
+     * Retrieves the end of the period whose availability changed.
+     *
+     * @return The end of the period.
+     */
+    public LocalDateTime getEndTime() {
+        return this.endTime;
+    }
+
+    /**
+     * Retrieves the time the change was published.
+     *
+     * @return The time of the change.
+     */
+    public LocalDateTime getOccurredAt() {
+        return this.occurredAt;
+    }
+
+    @Override
+    public String toString() {
+        if (type == Type.RESYNC) {
+            return "Room " + roomId + " " + type;
+        }
+        return "Room " + roomId + " " + type + " from " + startTime + " to " + endTime;
+    }
+}
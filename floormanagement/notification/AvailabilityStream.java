@@ -0,0 +1,165 @@
+package floormanagement.notification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import floormanagement.booking.ReservingRoom;
+import floormanagement.floor.FloorPlan;
+import floormanagement.floor.ReservationListener;
+import floormanagement.floor.Room;
+
+/**
+ * Publishes availability changes of the rooms of a building to subscribers, so that
+ * clients get notified of changes instead of polling {@link Room#isAvailable}.
+ * Clients can subscribe to a single room, to a floor, or to the whole building,
+ * which covers every floor plan attached to the stream.
+ */
+public class AvailabilityStream implements ReservationListener {
+    private final Map<Integer, List<Subscription>> roomSubscriptions;
+    private final Map<Integer, List<Subscription>> floorSubscriptions;
+    private final List<Subscription> buildingSubscriptions;
+
+    /**
+     * Constructs an AvailabilityStream without any floor plans or subscribers.
+     */
+    public AvailabilityStream() {
+        this.roomSubscriptions = new ConcurrentHashMap<>();
+        this.floorSubscriptions = new ConcurrentHashMap<>();
+        this.buildingSubscriptions = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Starts publishing the availability changes of every room of the floor plan.
+     *
+     * @param plan The floor plan to be attached.
+     */
+    public void attach(FloorPlan plan) {
+        plan.addReservationListener(this);
+    }
+
+    /**
+     * Stops publishing the availability changes of the floor plan.
+     *
+     * @param plan The floor plan to be detached.
+     */
+    public void detach(FloorPlan plan) {
+        plan.removeReservationListener(this);
+    }
+
+    /**
+     * Subscribes to the availability changes of a single room.
+     *
+     * @param roomId   The identifier of the room.
+     * @param capacity The maximum number of pending changes buffered for the subscriber.
+     * @return The new subscription.
+     */
+    public Subscription subscribeRoom(int roomId, int capacity) {
+        Subscription subscription = new Subscription(this, capacity);
+        roomSubscriptions.computeIfAbsent(roomId, key -> new CopyOnWriteArrayList<>()).add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Subscribes to the availability changes of every room of a floor.
+     *
+     * @param floorPlanId The identifier of the floor plan.
+     * @param capacity    The maximum number of pending changes buffered for the subscriber.
+     * @return The new subscription.
+     */
+    public Subscription subscribeFloor(int floorPlanId, int capacity) {
+        Subscription subscription = new Subscription(this, capacity);
+        floorSubscriptions.computeIfAbsent(floorPlanId, key -> new CopyOnWriteArrayList<>()).add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Subscribes to the availability changes of every room of the building.
+     *
+     * @param capacity The maximum number of pending changes buffered for the subscriber.
+     * @return The new subscription.
+     */
+    public Subscription subscribeBuilding(int capacity) {
+        Subscription subscription = new Subscription(this, capacity);
+        buildingSubscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Removes a subscription from the stream.
+     *
+     * @param subscription The subscription to be removed.
+     */
+    void unsubscribe(Subscription subscription) {
+        for (List<Subscription> subscriptions : roomSubscriptions.values()) {
+            subscriptions.remove(subscription);
+        }
+        for (List<Subscription> subscriptions : floorSubscriptions.values()) {
+            subscriptions.remove(subscription);
+        }
+        buildingSubscriptions.remove(subscription);
+    }
+
+    @Override
+    public void onReserved(Room room, ReservingRoom reservation) {
+        publish(room, AvailabilityChange.Type.RESERVED, reservation, reservation.getStartTime(),
+                reservation.getEndTime());
+    }
+
+    @Override
+    public void onReleased(Room room, ReservingRoom reservation) {
+        publish(room, AvailabilityChange.Type.RELEASED, reservation, reservation.getStartTime(),
+                reservation.getEndTime());
+    }
+
+    @Override
+    public void onShortened(Room room, ReservingRoom reservation, LocalDateTime previousEndTime) {
+        publish(room, AvailabilityChange.Type.SHORTENED, reservation, reservation.getEndTime(), previousEndTime);
+    }
+
+    @Override
+    public void onCheckedIn(Room room, ReservingRoom reservation) {
+        // Checking in doesn't change when the room is available.
+    }
+
+    @Override
+    public void onExpired(Room room, ReservingRoom reservation) {
+        publish(room, AvailabilityChange.Type.EXPIRED, reservation, reservation.getStartTime(),
+                reservation.getEndTime());
+    }
+
+    /**
+     * Delivers a change to every subscriber of the room, its floor and the building.
+     *
+     * @param room        The affected room.
+     * @param type        The kind of change.
+     * @param reservation The reservation that changed.
+     * @param startTime   The start of the period whose availability changed.
+     * @param endTime     The end of the period whose availability changed.
+     */
+    private void publish(Room room, AvailabilityChange.Type type, ReservingRoom reservation, LocalDateTime startTime,
+                            LocalDateTime endTime) {
+        AvailabilityChange change = new AvailabilityChange(room.getRoomId(), room.getFloorPlanId(), type,
+                reservation.getId(), startTime, endTime);
+        deliver(roomSubscriptions.get(room.getRoomId()), change);
+        deliver(floorSubscriptions.get(room.getFloorPlanId()), change);
+        deliver(buildingSubscriptions, change);
+    }
+
+    /**
+     * Offers a change to each of the given subscriptions.
+     *
+     * @param subscriptions The subscriptions to deliver to, may be null.
+     * @param change        The change to be delivered.
+     */
+    private void deliver(List<Subscription> subscriptions, AvailabilityChange change) {
+        if (subscriptions == null) {
+            return;
+        }
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(change);
+        }
+    }
+}
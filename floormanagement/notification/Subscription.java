@@ -0,0 +1,208 @@
+package floormanagement.notification;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A subscriber's bounded buffer of pending availability changes.
+ * Publishing never waits for the subscriber. A new change to a reservation that already has a
+ * pending change is merged with it: a booking that is shortened becomes a booking of the shorter
+ * window, a booking that is released or expires cancels out, and consecutive releases of the same
+ * reservation are joined into one period. Changes that can't be merged turn the room's pending
+ * changes into a {@link AvailabilityChange.Type#RESYNC} marker instead. Once the buffer is full, the pending changes of the room with the
+ * oldest change are replaced by a single {@link AvailabilityChange.Type#RESYNC} marker, and further
+ * changes to that room are dropped until the marker is polled. Resync markers are handed out before
+ * any other change, so a slow consumer that re-reads the marked rooms still ends up with the right state.
+ */
+public class Subscription {
+    private final AvailabilityStream stream;
+    private final int capacity;
+    private final Map<Long, AvailabilityChange> pending;
+    private final Map<Integer, AvailabilityChange> resyncs;
+    private long coalescedCount;
+    private long droppedCount;
+    private boolean cancelled;
+
+    /**
+     * Constructs a Subscription with the given buffer capacity.
+     *
+     * @param stream   The stream the subscription belongs to.
+     * @param capacity The maximum number of pending changes, not counting resync markers,
+     *                 of which there is at most one per room.
+     * @throws IllegalArgumentException If the capacity is not positive.
+     */
+    Subscription(AvailabilityStream stream, int capacity) throws IllegalArgumentException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Subscription capacity must be positive");
+        }
+        this.stream = stream;
+        this.capacity = capacity;
+        this.pending = new LinkedHashMap<>();
+        this.resyncs = new LinkedHashMap<>();
+    }
+
+    /**
+     * Buffers a change for the subscriber without blocking.
+     *
+     * @param change The change to be delivered.
+     */
+    synchronized void offer(AvailabilityChange change) {
+        if (cancelled) {
+            return;
+        }
+        if (resyncs.containsKey(change.getRoomId())) {
+            droppedCount++;
+            return;
+        }
+        long key = key(change);
+        AvailabilityChange previous = pending.get(key);
+        if (previous != null) {
+            merge(key, previous, change);
+            notifyAll();
+            return;
+        }
+        if (pending.size() >= capacity) {
+            AvailabilityChange oldest = pending.values().iterator().next();
+            resync(oldest);
+            if (oldest.getRoomId() == change.getRoomId()) {
+                droppedCount++;
+                notifyAll();
+                return;
+            }
+        }
+        pending.put(key, change);
+        notifyAll();
+    }
+
+    /**
+     * Retrieves and removes the next pending change, resync markers first.
+     *
+     * @return The next pending change, or null if there is none.
+     */
+    public synchronized AvailabilityChange poll() {
+        Iterator<AvailabilityChange> next = resyncs.isEmpty() ? pending.values().iterator()
+                : resyncs.values().iterator();
+        if (!next.hasNext()) {
+            return null;
+        }
+        AvailabilityChange change = next.next();
+        next.remove();
+        return change;
+    }
+
+    /**
+     * Retrieves and removes the next pending change, waiting up to the given time for one to arrive.
+     *
+     * @param timeout The maximum time to wait.
+     * @param unit    The unit of the timeout.
+     * @return The next pending change, or null if none arrived in time.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public synchronized AvailabilityChange poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (size() == 0 && !cancelled) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return poll();
+    }
+
+    /**
+     * Retrieves the number of pending changes, including resync markers.
+     *
+     * @return The number of pending changes.
+     */
+    public synchronized int size() {
+        return pending.size() + resyncs.size();
+    }
+
+    /**
+     * Retrieves the number of changes merged with, or cancelled out by, another change to the same reservation.
+     *
+     * @return The number of coalesced changes.
+     */
+    public synchronized long getCoalescedCount() {
+        return this.coalescedCount;
+    }
+
+    /**
+     * Retrieves the number of changes folded into resync markers because the buffer was full.
+     *
+     * @return The number of dropped changes.
+     */
+    public synchronized long getDroppedCount() {
+        return this.droppedCount;
+    }
+
+    /**
+     * Stops the subscription and discards its pending changes.
+     */
+    public void cancel() {
+        synchronized (this) {
+            cancelled = true;
+            pending.clear();
+            resyncs.clear();
+            notifyAll();
+        }
+        stream.unsubscribe(this);
+    }
+
+    /**
+     * Merges a new change into the pending change of the same reservation, keeping its place in the buffer.
+     *
+     * @param key      The coalescing key of both changes.
+     * @param previous The pending change.
+     * @param change   The new change.
+     */
+    private void merge(long key, AvailabilityChange previous, AvailabilityChange change) {
+        AvailabilityChange.Type first = previous.getType();
+        AvailabilityChange.Type second = change.getType();
+        boolean ended = second == AvailabilityChange.Type.RELEASED || second == AvailabilityChange.Type.EXPIRED;
+        if (first == AvailabilityChange.Type.RESERVED && ended) {
+            pending.remove(key);
+            coalescedCount += 2;
+        } else if (first == AvailabilityChange.Type.RESERVED && second == AvailabilityChange.Type.SHORTENED) {
+            pending.put(key, new AvailabilityChange(change.getRoomId(), change.getFloorPlanId(), first,
+                    change.getReservationId(), previous.getStartTime(), change.getStartTime()));
+            coalescedCount++;
+        } else if (first == AvailabilityChange.Type.SHORTENED && (ended || second == first)) {
+            pending.put(key, new AvailabilityChange(change.getRoomId(), change.getFloorPlanId(), second,
+                    change.getReservationId(), change.getStartTime(), previous.getEndTime()));
+            coalescedCount++;
+        } else {
+            resync(previous);
+            droppedCount++;
+        }
+    }
+
+    /**
+     * Replaces every pending change of the room of the given change by a resync marker.
+     *
+     * @param change A pending change of the room to be resynced.
+     */
+    private void resync(AvailabilityChange change) {
+        Iterator<AvailabilityChange> iterator = pending.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getRoomId() == change.getRoomId()) {
+                iterator.remove();
+                droppedCount++;
+            }
+        }
+        resyncs.put(change.getRoomId(), AvailabilityChange.resync(change.getRoomId(), change.getFloorPlanId()));
+    }
+
+    /**
+     * Combines the room and the reservation of a change into its coalescing key.
+     *
+     * @param change The change.
+     * @return The key of the change.
+     */
+    private static long key(AvailabilityChange change) {
+        return ((long) change.getRoomId() << 32) | (change.getReservationId() & 0xffffffffL);
+    }
+}
@@ -0,0 +1,435 @@
+package floormanagement.reporting;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import floormanagement.booking.ReservationArchive;
+import floormanagement.booking.ReservationArchive.ArchivedReservation;
+import floormanagement.booking.ReservingRoom;
+import floormanagement.floor.FloorPlan;
+import floormanagement.floor.ReservationListener;
+import floormanagement.floor.Room;
+
+/**
+ * Keeps occupancy and utilization figures per room, per floor and per hour up to date
+ * as reservations are booked, cancelled, shortened and expire, so dashboards read
+ * the hourly buckets instead of scanning every reservation.
+ * The figures can be rebuilt from the raw reservations to verify them.
+ */
+public class UtilizationAggregates implements ReservationListener {
+    private final Map<Integer, RoomAggregate> rooms;
+    private final Map<Integer, FloorAggregate> floors;
+
+    /**
+     * Constructs empty UtilizationAggregates.
+     */
+    public UtilizationAggregates() {
+        this.rooms = new ConcurrentHashMap<>();
+        this.floors = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Rebuilds the aggregates from the reservations held by the rooms and from the archive.
+     *
+     * @param floorPlans The floor plans whose rooms should be aggregated.
+     * @param archive    The archive holding the expired reservations.
+     * @return The rebuilt aggregates.
+     */
+    public static UtilizationAggregates rebuild(List<FloorPlan> floorPlans, ReservationArchive archive) {
+        UtilizationAggregates aggregates = new UtilizationAggregates();
+        for (FloorPlan plan : floorPlans) {
+            for (Room room : plan.getRooms()) {
+                for (ReservingRoom reservation : room.getReservations()) {
+                    aggregates.onReserved(room, reservation);
+                }
+                for (ArchivedReservation reservation : archive.getArchived(room.getRoomId())) {
+                    aggregates.book(room, reservation.getStartTime(), reservation.getEndTime(),
+                            reservation.getTotalMembers(), 1);
+                    aggregates.expire(room, reservation.isCheckedIn());
+                }
+            }
+        }
+        return aggregates;
+    }
+
+    /**
+     * Starts aggregating the reservations of every room of the floor plan.
+     *
+     * @param plan The floor plan to be attached.
+     */
+    public void attach(FloorPlan plan) {
+        plan.addReservationListener(this);
+    }
+
+    /**
+     * Checks the aggregates against ones rebuilt from the raw reservations.
+     *
+     * @param floorPlans The floor plans whose rooms are aggregated.
+     * @param archive    The archive holding the expired reservations.
+     * @return True if both agree for every floor and every room, false otherwise.
+     */
+    public boolean verify(List<FloorPlan> floorPlans, ReservationArchive archive) {
+        UtilizationAggregates rebuilt = rebuild(floorPlans, archive);
+        for (FloorPlan plan : floorPlans) {
+            FloorAggregate expectedFloor = rebuilt.floors.get(plan.getFloorPlanId());
+            FloorAggregate actualFloor = floors.get(plan.getFloorPlanId());
+            if (expectedFloor == null ? actualFloor != null && !actualFloor.isEmpty()
+                    : !expectedFloor.sameAs(actualFloor)) {
+                return false;
+            }
+            for (Room room : plan.getRooms()) {
+                RoomAggregate expected = rebuilt.rooms.get(room.getRoomId());
+                RoomAggregate actual = rooms.get(room.getRoomId());
+                if (expected == null ? actual != null && !actual.isEmpty() : !expected.sameAs(actual)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void onReserved(Room room, ReservingRoom reservation) {
+        book(room, reservation.getStartTime(), reservation.getEndTime(), reservation.getTotalMembers(), 1);
+    }
+
+    @Override
+    public void onReleased(Room room, ReservingRoom reservation) {
+        book(room, reservation.getStartTime(), reservation.getEndTime(), reservation.getTotalMembers(), -1);
+    }
+
+    @Override
+    public void onShortened(Room room, ReservingRoom reservation, LocalDateTime previousEndTime) {
+        book(room, reservation.getStartTime(), previousEndTime, reservation.getTotalMembers(), -1);
+        book(room, reservation.getStartTime(), reservation.getEndTime(), reservation.getTotalMembers(), 1);
+    }
+
+    @Override
+    public void onCheckedIn(Room room, ReservingRoom reservation) {
+        // No-shows are counted when the reservation expires, using its check-in state at that time.
+    }
+
+    @Override
+    public void onExpired(Room room, ReservingRoom reservation) {
+        expire(room, reservation.isCheckedIn());
+    }
+
+    /**
+     * Retrieves the booked minutes of a room per hour, for the hours within the given period.
+     *
+     * @param roomId The identifier of the room.
+     * @param from   The start of the period.
+     * @param to     The end of the period.
+     * @return The booked minutes keyed by the start of each hour.
+     */
+    public NavigableMap<LocalDateTime, Long> getHourlyBookedMinutes(int roomId, LocalDateTime from, LocalDateTime to) {
+        RoomAggregate room = rooms.get(roomId);
+        if (room == null) {
+            return new TreeMap<>();
+        }
+        synchronized (room) {
+            return new TreeMap<>(room.bookedMinutes.subMap(toHour(from), true, to, false));
+        }
+    }
+
+    /**
+     * Retrieves the total booked minutes of a room within the given period.
+     *
+     * @param roomId The identifier of the room.
+     * @param from   The start of the period.
+     * @param to     The end of the period.
+     * @return The booked minutes.
+     */
+    public long getBookedMinutes(int roomId, LocalDateTime from, LocalDateTime to) {
+        return sum(getHourlyBookedMinutes(roomId, from, to));
+    }
+
+    /**
+     * Retrieves the total booked minutes of every room of a floor within the given period.
+     *
+     * @param floorPlanId The identifier of the floor plan.
+     * @param from        The start of the period.
+     * @param to          The end of the period.
+     * @return The booked minutes.
+     */
+    public long getFloorBookedMinutes(int floorPlanId, LocalDateTime from, LocalDateTime to) {
+        FloorAggregate floor = floors.get(floorPlanId);
+        if (floor == null) {
+            return 0;
+        }
+        synchronized (floor) {
+            return sum(floor.bookedMinutes.subMap(toHour(from), true, to, false));
+        }
+    }
+
+    /**
+     * Retrieves the share of the given period during which the room was booked.
+     *
+     * @param roomId The identifier of the room.
+     * @param from   The start of the period, rounded down to the hour.
+     * @param to     The end of the period, rounded down to the hour.
+     * @return The utilization between 0 and 1.
+     */
+    public double getUtilization(int roomId, LocalDateTime from, LocalDateTime to) {
+        long totalMinutes = Duration.between(toHour(from), toHour(to)).toMinutes();
+        if (totalMinutes <= 0) {
+            return 0;
+        }
+        return (double) getBookedMinutes(roomId, from, toHour(to)) / totalMinutes;
+    }
+
+    /**
+     * Retrieves the highest number of members booked in the room during any hour of the period,
+     * relative to the room's capacity.
+     *
+     * @param roomId The identifier of the room.
+     * @param from   The start of the period.
+     * @param to     The end of the period.
+     * @return The peak occupancy, where 1 means the room was booked to capacity.
+     */
+    public double getPeakOccupancy(int roomId, LocalDateTime from, LocalDateTime to) {
+        RoomAggregate room = rooms.get(roomId);
+        if (room == null || room.capacity <= 0) {
+            return 0;
+        }
+        int peak = 0;
+        synchronized (room) {
+            for (TreeMap<Integer, Integer> members : room.bookedMembers.subMap(toHour(from), true, to, false).values()) {
+                peak = Math.max(peak, members.lastKey());
+            }
+        }
+        return (double) peak / room.capacity;
+    }
+
+    /**
+     * Retrieves the share of the room's expired reservations that were never checked in.
+     *
+     * @param roomId The identifier of the room.
+     * @return The no-show ratio between 0 and 1.
+     */
+    public double getNoShowRatio(int roomId) {
+        RoomAggregate room = rooms.get(roomId);
+        if (room == null) {
+            return 0;
+        }
+        synchronized (room) {
+            return room.expired == 0 ? 0 : (double) room.noShows / room.expired;
+        }
+    }
+
+    /**
+     * Retrieves the share of the floor's expired reservations that were never checked in.
+     *
+     * @param floorPlanId The identifier of the floor plan.
+     * @return The no-show ratio between 0 and 1.
+     */
+    public double getFloorNoShowRatio(int floorPlanId) {
+        FloorAggregate floor = floors.get(floorPlanId);
+        if (floor == null) {
+            return 0;
+        }
+        synchronized (floor) {
+            return floor.expired == 0 ? 0 : (double) floor.noShows / floor.expired;
+        }
+    }
+
+    /**
+     * Adds or removes a booked period of a room in every hour bucket it covers.
+     *
+     * @param room    The booked room.
+     * @param start   The start of the booked period.
+     * @param end     The end of the booked period.
+     * @param members The number of members of the booking.
+     * @param sign    1 to add the booking, -1 to remove it.
+     */
+    private void book(Room room, LocalDateTime start, LocalDateTime end, int members, int sign) {
+        RoomAggregate roomAggregate = roomAggregate(room);
+        FloorAggregate floorAggregate = floorAggregate(room);
+        for (LocalDateTime hour = toHour(start); hour.isBefore(end); hour = hour.plusHours(1)) {
+            LocalDateTime from = start.isAfter(hour) ? start : hour;
+            LocalDateTime nextHour = hour.plusHours(1);
+            long minutes = sign * Duration.between(from, end.isBefore(nextHour) ? end : nextHour).toMinutes();
+            synchronized (roomAggregate) {
+                add(roomAggregate.bookedMinutes, hour, minutes);
+                TreeMap<Integer, Integer> bookedMembers = roomAggregate.bookedMembers.computeIfAbsent(hour,
+                        key -> new TreeMap<>());
+                bookedMembers.merge(members, sign, Integer::sum);
+                if (bookedMembers.get(members) <= 0) {
+                    bookedMembers.remove(members);
+                }
+                if (bookedMembers.isEmpty()) {
+                    roomAggregate.bookedMembers.remove(hour);
+                }
+            }
+            synchronized (floorAggregate) {
+                add(floorAggregate.bookedMinutes, hour, minutes);
+            }
+        }
+    }
+
+    /**
+     * Counts an expired reservation of a room.
+     *
+     * @param room      The room of the reservation.
+     * @param checkedIn Whether the reservation had been checked in.
+     */
+    private void expire(Room room, boolean checkedIn) {
+        RoomAggregate roomAggregate = roomAggregate(room);
+        FloorAggregate floorAggregate = floorAggregate(room);
+        synchronized (roomAggregate) {
+            roomAggregate.expired++;
+            if (!checkedIn) {
+                roomAggregate.noShows++;
+            }
+        }
+        synchronized (floorAggregate) {
+            floorAggregate.expired++;
+            if (!checkedIn) {
+                floorAggregate.noShows++;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the figures of a room, creating them on first use.
+     *
+     * @param room The room.
+     * @return The room's figures.
+     */
+    private RoomAggregate roomAggregate(Room room) {
+        return rooms.computeIfAbsent(room.getRoomId(), key -> new RoomAggregate(room.getCapacity()));
+    }
+
+    /**
+     * Retrieves the figures of the floor a room belongs to, creating them on first use.
+     *
+     * @param room The room.
+     * @return The floor's figures.
+     */
+    private FloorAggregate floorAggregate(Room room) {
+        return floors.computeIfAbsent(room.getFloorPlanId(), key -> new FloorAggregate());
+    }
+
+    /**
+     * Adds minutes to an hour bucket, dropping the bucket once it is back to zero.
+     *
+     * @param bookedMinutes The hourly buckets.
+     * @param hour          The start of the hour.
+     * @param minutes       The minutes to add, negative to remove them.
+     */
+    private static void add(NavigableMap<LocalDateTime, Long> bookedMinutes, LocalDateTime hour, long minutes) {
+        Long total = bookedMinutes.merge(hour, minutes, Long::sum);
+        if (total == 0) {
+            bookedMinutes.remove(hour);
+        }
+    }
+
+    /**
+     * Sums the minutes of the given hour buckets.
+     *
+     * @param bookedMinutes The hourly buckets.
+     * @return The total minutes.
+     */
+    private static long sum(Map<LocalDateTime, Long> bookedMinutes) {
+        long total = 0;
+        for (long minutes : bookedMinutes.values()) {
+            total += minutes;
+        }
+        return total;
+    }
+
+    /**
+     * Rounds a time down to the start of its hour bucket.
+     *
+     * @param time The time to round.
+     * @return The start of the hour.
+     */
+    private static LocalDateTime toHour(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    /**
+     * The hourly figures of a single room.
+     */
+    private static class RoomAggregate {
+        private final int capacity;
+        private final NavigableMap<LocalDateTime, Long> bookedMinutes = new TreeMap<>();
+        private final NavigableMap<LocalDateTime, TreeMap<Integer, Integer>> bookedMembers = new TreeMap<>();
+        private long expired;
+        private long noShows;
+
+        /**
+         * Constructs empty figures for a room of the given capacity.
+         *
+         * @param capacity The capacity of the room.
+         */
+        RoomAggregate(int capacity) {
+            this.capacity = capacity;
+        }
+
+        /**
+         * Checks if no booking has been counted for the room.
+         *
+         * @return True if the figures are empty, false otherwise.
+         */
+        synchronized boolean isEmpty() {
+            return bookedMinutes.isEmpty() && bookedMembers.isEmpty() && expired == 0;
+        }
+
+        /**
+         * Checks if these figures are equal to the other ones.
+         *
+         * @param other The figures to compare with, may be null.
+         * @return True if both figures agree, false otherwise.
+         */
+        synchronized boolean sameAs(RoomAggregate other) {
+            if (other == null) {
+                return isEmpty();
+            }
+            synchronized (other) {
+                return bookedMinutes.equals(other.bookedMinutes) && bookedMembers.equals(other.bookedMembers)
+                        && expired == other.expired && noShows == other.noShows;
+            }
+        }
+    }
+
+    /**
+     * The hourly figures of all rooms of a floor.
+     */
+    private static class FloorAggregate {
+        private final NavigableMap<LocalDateTime, Long> bookedMinutes = new TreeMap<>();
+        private long expired;
+        private long noShows;
+
+        /**
+         * Checks if no booking has been counted for the floor.
+         *
+         * @return True if the figures are empty, false otherwise.
+         */
+        synchronized boolean isEmpty() {
+            return bookedMinutes.isEmpty() && expired == 0;
+        }
+
+        /**
+         * Checks if these figures are equal to the other ones.
+         *
+         * @param other The figures to compare with, may be null.
+         * @return True if both figures agree, false otherwise.
+         */
+        synchronized boolean sameAs(FloorAggregate other) {
+            if (other == null) {
+                return isEmpty();
+            }
+            synchronized (other) {
+                return bookedMinutes.equals(other.bookedMinutes) && expired == other.expired
+                        && noShows == other.noShows;
+            }
+        }
+    }
+}
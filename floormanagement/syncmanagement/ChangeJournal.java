@@ -0,0 +1,321 @@
+package floormanagement.syncmanagement;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import floormanagement.booking.ReservationArchive;
+import floormanagement.booking.ReservingRoom;
+import floormanagement.floor.ReservationListener;
+import floormanagement.floor.Room;
+import floormanagement.users.Admin;
+
+/**
+ * Appends every reservation change to a journal on disk, so that the changes made since
+ * the last snapshot can be replayed on startup.
+ * The journal is split into segments named after their first sequence number; segments
+ * fully covered by a snapshot are deleted once the snapshot is written.
+ * Expired reservations are journaled in full, so replaying them restores the archive; records
+ * of older journals that only name the expired reservation archive the one still held by the room.
+ */
+class ChangeJournal implements ReservationListener {
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final byte RESERVED = 1;
+    private static final byte RELEASED = 2;
+    private static final byte SHORTENED = 3;
+    private static final byte EXPIRED = 4;
+    private static final byte CHECKED_IN = 5;
+    private static final byte ARCHIVED = 6;
+    private static final int HEADER_SIZE = Long.BYTES + Byte.BYTES + Integer.BYTES;
+
+    private final Path directory;
+    private DataOutputStream segment;
+    private Path segmentFile;
+    private long lastSequence;
+
+    /**
+     * Opens a new journal segment continuing after the given sequence.
+     *
+     * @param directory    The directory holding the journal segments.
+     * @param lastSequence The sequence of the last record already written.
+     * @throws IOException If the segment couldn't be created.
+     */
+    ChangeJournal(Path directory, long lastSequence) throws IOException {
+        this.directory = directory;
+        this.lastSequence = lastSequence;
+        openSegment();
+    }
+
+    @Override
+    public void onReserved(Room room, ReservingRoom reservation) {
+        append(RESERVED, room, reservation, null);
+    }
+
+    @Override
+    public void onReleased(Room room, ReservingRoom reservation) {
+        append(RELEASED, room, reservation, null);
+    }
+
+    @Override
+    public void onShortened(Room room, ReservingRoom reservation, LocalDateTime previousEndTime) {
+        append(SHORTENED, room, reservation, reservation.getEndTime());
+    }
+
+    @Override
+    public void onCheckedIn(Room room, ReservingRoom reservation) {
+        append(CHECKED_IN, room, reservation, null);
+    }
+
+    @Override
+    public void onExpired(Room room, ReservingRoom reservation) {
+        append(ARCHIVED, room, reservation, null);
+    }
+
+    /**
+     * Closes the current segment and starts a new one.
+     *
+     * @return The sequence of the last record of the closed segment.
+     * @throws IOException If the new segment couldn't be created.
+     */
+    synchronized long rotate() throws IOException {
+        segment.close();
+        openSegment();
+        return lastSequence;
+    }
+
+    /**
+     * Deletes the segments whose records are all covered by a snapshot.
+     *
+     * @param sequence The sequence of the last record covered by the snapshot.
+     * @throws IOException If the directory couldn't be listed.
+     */
+    synchronized void deleteSegmentsUpTo(long sequence) throws IOException {
+        for (Path file : listSegments(directory)) {
+            if (!file.equals(segmentFile) && firstSequence(file) <= sequence) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Closes the current segment.
+     */
+    synchronized void close() {
+        try {
+            segment.close();
+        } catch (IOException e) {
+            System.err.println("Couldn't close the journal due to :- " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replays the records written after the given sequence onto the rooms.
+     * Replaying is idempotent, so records already reflected in the snapshot are harmless.
+     * A torn or corrupted record ends the replay of its segment, and the segment is truncated
+     * right before it so that records appended later are never hidden behind it.
+     *
+     * @param directory     The directory holding the journal segments.
+     * @param afterSequence The sequence of the last record covered by the snapshot.
+     * @param rooms         The rooms by identifier.
+     * @param reservations  The known reservations by identifier, extended with replayed ones.
+     * @param archive       The archive receiving replayed expired reservations.
+     * @param admins        Resolves admin identifiers to admins.
+     * @return The sequence of the last record found in the journal.
+     * @throws IOException If a segment couldn't be read.
+     */
+    static long replay(Path directory, long afterSequence, Map<Integer, Room> rooms,
+                        Map<Integer, ReservingRoom> reservations, ReservationArchive archive,
+                        IntFunction<Admin> admins) throws IOException {
+        long lastSequence = afterSequence;
+        for (Path file : listSegments(directory)) {
+            long validLength = 0;
+            long size;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                size = channel.size();
+                MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                while (in.remaining() >= HEADER_SIZE) {
+                    int recordStart = in.position();
+                    long sequence = in.getLong();
+                    byte type = in.get();
+                    int length = in.getInt();
+                    if (length < 0 || in.remaining() < length + Long.BYTES) {
+                        System.err.println("Ignoring torn journal record " + sequence + " in " + file);
+                        break;
+                    }
+                    byte[] record = new byte[HEADER_SIZE + length];
+                    in.position(recordStart);
+                    in.get(record);
+                    CRC32 crc = new CRC32();
+                    crc.update(record);
+                    if (in.getLong() != crc.getValue()) {
+                        System.err.println("Ignoring corrupted journal record " + sequence + " in " + file);
+                        break;
+                    }
+                    validLength = in.position();
+                    lastSequence = Math.max(lastSequence, sequence);
+                    if (sequence > afterSequence) {
+                        apply(type, ByteBuffer.wrap(record, HEADER_SIZE, length), rooms, reservations, archive,
+                                admins);
+                    }
+                }
+            }
+            if (validLength < size) {
+                System.err.println("Truncating " + file + " to its last valid record");
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(validLength);
+                }
+            }
+        }
+        return lastSequence;
+    }
+
+    /**
+     * Applies a single journal record to the rooms.
+     *
+     * @param type         The type of the record.
+     * @param in           The payload of the record.
+     * @param rooms        The rooms by identifier.
+     * @param reservations The known reservations by identifier.
+     * @param archive      The archive receiving expired reservations.
+     * @param admins       Resolves admin identifiers to admins.
+     */
+    private static void apply(byte type, ByteBuffer in, Map<Integer, Room> rooms,
+                                Map<Integer, ReservingRoom> reservations, ReservationArchive archive,
+                                IntFunction<Admin> admins) {
+        int roomId = in.getInt();
+        Room room = rooms.get(roomId);
+        if (type == ARCHIVED) {
+            ReservingRoom expired = StateCodec.readReservation(in, room, admins);
+            if (!archive.contains(roomId, expired.getId())) {
+                archive.add(roomId, expired);
+            }
+            ReservingRoom held = room != null ? room.findReservation(expired.getId()) : null;
+            if (held != null) {
+                room.cancelReservation(held);
+            }
+            return;
+        }
+        if (type == RESERVED) {
+            ReservingRoom reservation = StateCodec.readReservation(in, room, admins);
+            ReservingRoom known = reservations.putIfAbsent(reservation.getId(), reservation);
+            if (room != null && room.findReservation(reservation.getId()) == null) {
+                (known != null ? known : reservation).tryAssign(room);
+            }
+            return;
+        }
+        ReservingRoom reservation = room != null ? room.findReservation(in.getInt()) : null;
+        if (reservation == null) {
+            return;
+        }
+        if (type == SHORTENED) {
+            LocalDateTime newEndTime = LocalDateTime.parse(StateCodec.readString(in));
+            if (newEndTime.isBefore(reservation.getEndTime())) {
+                reservation.shorten(newEndTime, null);
+            }
+        } else if (type == CHECKED_IN) {
+            reservation.checkIn();
+        } else if (type == EXPIRED) {
+            if (!archive.contains(roomId, reservation.getId())) {
+                archive.add(roomId, reservation);
+            }
+            room.cancelReservation(reservation);
+        } else {
+            room.cancelReservation(reservation);
+        }
+    }
+
+    /**
+     * Writes a record for a reservation change.
+     *
+     * @param type        The type of the record.
+     * @param room        The room of the reservation.
+     * @param reservation The changed reservation.
+     * @param newEndTime  The new end time of a shortened reservation, null otherwise.
+     */
+    private synchronized void append(byte type, Room room, ReservingRoom reservation, LocalDateTime newEndTime) {
+        try {
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(record);
+            out.writeLong(lastSequence + 1);
+            out.writeByte(type);
+            out.writeInt(0);
+            out.writeInt(room.getRoomId());
+            if (type == RESERVED || type == ARCHIVED) {
+                StateCodec.writeReservation(out, reservation);
+            } else {
+                out.writeInt(reservation.getId());
+            }
+            if (type == SHORTENED) {
+                StateCodec.writeString(out, newEndTime.toString());
+            }
+            byte[] bytes = record.toByteArray();
+            ByteBuffer.wrap(bytes).putInt(Long.BYTES + Byte.BYTES, bytes.length - HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            segment.write(bytes);
+            segment.writeLong(crc.getValue());
+            segment.flush();
+            lastSequence++;
+        } catch (IOException e) {
+            System.err.println("Couldn't journal change of room " + room.getRoomId() + " due to :- "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the segment starting after the last written record.
+     *
+     * @throws IOException If the segment couldn't be created.
+     */
+    private void openSegment() throws IOException {
+        segmentFile = directory.resolve(SEGMENT_PREFIX + (lastSequence + 1) + SEGMENT_SUFFIX);
+        segment = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(segmentFile,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+
+    /**
+     * Lists the journal segments of a directory in the order they were written.
+     *
+     * @param directory The directory holding the journal segments.
+     * @return The segment files, oldest first.
+     * @throws IOException If the directory couldn't be listed.
+     */
+    private static List<Path> listSegments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted((first, second) -> Long.compare(firstSequence(first), firstSequence(second)))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Retrieves the first sequence number of a segment from its file name.
+     *
+     * @param file The segment file.
+     * @return The sequence of its first record.
+     */
+    private static long firstSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,171 @@
+package floormanagement.syncmanagement;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import floormanagement.booking.ReservationArchive.ArchivedReservation;
+import floormanagement.booking.ReservingRoom;
+import floormanagement.floor.Room;
+import floormanagement.users.Admin;
+
+/**
+ * The binary encoding of rooms and reservations shared by the snapshots, the change journal
+ * and anything else that ships room state between processes.
+ * Values are big-endian, and strings are written as their UTF-8 length followed by their UTF-8 bytes.
+ */
+public final class StateCodec {
+
+    /**
+     * Prevents instantiation, the codec only has static methods.
+     */
+    private StateCodec() {
+    }
+
+    /**
+     * Writes a room together with its current and upcoming reservations.
+     *
+     * @param out  The stream to write to.
+     * @param room The room.
+     * @throws IOException If writing fails.
+     */
+    public static void writeRoom(DataOutputStream out, Room room) throws IOException {
+        List<ReservingRoom> reservations = new ArrayList<>(room.getReservations());
+        out.writeInt(room.getRoomId());
+        writeString(out, room.getRoomDescription());
+        out.writeInt(room.getCapacity());
+        writeString(out, room.getLocation());
+        out.writeDouble(room.getX());
+        out.writeDouble(room.getY());
+        out.writeInt(reservations.size());
+        for (ReservingRoom reservation : reservations) {
+            writeReservation(out, reservation);
+        }
+    }
+
+    /**
+     * Reads a room written by {@link #writeRoom} and books its reservations on it.
+     *
+     * @param in           The buffer to read from.
+     * @param admins       Resolves admin identifiers to admins, returning null for unknown ones.
+     * @param reservations The reservations read so far by identifier, shared by rooms booked together.
+     * @return The room.
+     */
+    public static Room readRoom(ByteBuffer in, IntFunction<Admin> admins, Map<Integer, ReservingRoom> reservations) {
+        Room room = new Room(in.getInt(), readString(in), in.getInt(), readString(in), in.getDouble(),
+                in.getDouble());
+        int reservationCount = in.getInt();
+        for (int i = 0; i < reservationCount; i++) {
+            ReservingRoom reservation = readReservation(in, room, admins);
+            ReservingRoom shared = reservations.putIfAbsent(reservation.getId(), reservation);
+            (shared != null ? shared : reservation).tryAssign(room);
+        }
+        return room;
+    }
+
+    /**
+     * Writes the fields of a reservation.
+     *
+     * @param out         The stream to write to.
+     * @param reservation The reservation.
+     * @throws IOException If writing fails.
+     */
+    public static void writeReservation(DataOutputStream out, ReservingRoom reservation) throws IOException {
+        out.writeInt(reservation.getId());
+        out.writeInt(reservation.getCreator() != null ? reservation.getCreator().getId() : -1);
+        writeString(out, reservation.getDescription());
+        writeString(out, reservation.getStartTime().toString());
+        writeString(out, reservation.getEndTime().toString());
+        out.writeInt(reservation.getTotalMembers());
+        out.writeBoolean(reservation.isCheckedIn());
+    }
+
+    /**
+     * Reads the fields of a reservation, without booking it.
+     *
+     * @param in     The buffer to read from.
+     * @param room   The room the reservation was made for.
+     * @param admins Resolves admin identifiers to admins, returning null for unknown ones.
+     * @return The reservation.
+     */
+    public static ReservingRoom readReservation(ByteBuffer in, Room room, IntFunction<Admin> admins) {
+        int id = in.getInt();
+        Admin creator = admins.apply(in.getInt());
+        ReservingRoom reservation = new ReservingRoom(id, room, creator, readString(in), readString(in),
+                readString(in), in.getInt());
+        if (in.get() != 0) {
+            reservation.checkIn();
+        }
+        return reservation;
+    }
+
+    /**
+     * Writes an archived reservation, with its times as UTC epoch seconds.
+     *
+     * @param out         The stream to write to.
+     * @param reservation The archived reservation.
+     * @throws IOException If writing fails.
+     */
+    public static void writeArchived(DataOutputStream out, ArchivedReservation reservation) throws IOException {
+        out.writeInt(reservation.getId());
+        out.writeInt(reservation.getRoomId());
+        out.writeLong(reservation.getStartTime().toEpochSecond(ZoneOffset.UTC));
+        out.writeLong(reservation.getEndTime().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(reservation.getTotalMembers());
+        out.writeBoolean(reservation.isCheckedIn());
+    }
+
+    /**
+     * Reads an archived reservation written by {@link #writeArchived}.
+     *
+     * @param in The buffer to read from.
+     * @return The archived reservation.
+     */
+    public static ArchivedReservation readArchived(ByteBuffer in) {
+        int id = in.getInt();
+        int roomId = in.getInt();
+        LocalDateTime startTime = LocalDateTime.ofEpochSecond(in.getLong(), 0, ZoneOffset.UTC);
+        LocalDateTime endTime = LocalDateTime.ofEpochSecond(in.getLong(), 0, ZoneOffset.UTC);
+        return new ArchivedReservation(id, roomId, startTime, endTime, in.getInt(), in.get() != 0);
+    }
+
+    /**
+     * Writes a string as its UTF-8 length followed by its UTF-8 bytes.
+     *
+     * @param out   The stream to write to.
+     * @param value The string, may be null.
+     * @throws IOException If writing fails.
+     */
+    public static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString}.
+     *
+     * @param in The buffer to read from.
+     * @return The string, or null if a null string was written.
+     */
+    public static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,189 @@
+package floormanagement.syncmanagement;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import floormanagement.booking.ReservationArchive.ArchivedReservation;
+import floormanagement.booking.ReservingRoom;
+import floormanagement.floor.FloorPlan;
+import floormanagement.floor.Room;
+import floormanagement.users.Admin;
+
+/**
+ * Writes and loads compact binary snapshots of the floor plans, their rooms, the
+ * rooms' current and upcoming reservations, and the archive of expired reservations.
+ * Snapshots of the first format version, written before the archive was included, are
+ * still read and restore an empty archive.
+ */
+class StateSnapshot {
+    private static final int MAGIC = 0x464C5053;
+    private static final int FORMAT_VERSION = 2;
+    private static final int FORMAT_VERSION_WITHOUT_ARCHIVE = 1;
+
+    private final List<FloorPlan> floorPlans;
+    private final List<ArchivedReservation> archived;
+    private final long journalSequence;
+
+    /**
+     * Constructs a StateSnapshot of the given floor plans.
+     *
+     * @param floorPlans      The floor plans in the snapshot.
+     * @param archived        The archived reservations in the snapshot.
+     * @param journalSequence The sequence of the last journal record covered by the snapshot.
+     */
+    StateSnapshot(List<FloorPlan> floorPlans, List<ArchivedReservation> archived, long journalSequence) {
+        this.floorPlans = floorPlans;
+        this.archived = archived;
+        this.journalSequence = journalSequence;
+    }
+
+    /**
+     * Retrieves the floor plans in the snapshot.
+     *
+     * @return The floor plans.
+     */
+    List<FloorPlan> getFloorPlans() {
+        return this.floorPlans;
+    }
+
+    /**
+     * Retrieves the archived reservations in the snapshot.
+     *
+     * @return The archived reservations.
+     */
+    List<ArchivedReservation> getArchived() {
+        return this.archived;
+    }
+
+    /**
+     * Retrieves the sequence of the last journal record covered by the snapshot.
+     *
+     * @return The journal sequence.
+     */
+    long getJournalSequence() {
+        return this.journalSequence;
+    }
+
+    /**
+     * Writes the snapshot to a temporary file and then moves it over the target file,
+     * so a crash while writing never leaves a partial snapshot behind.
+     *
+     * @param file The file to write the snapshot to.
+     * @throws IOException If the snapshot couldn't be written.
+     */
+    void write(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream stream = Files.newOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(journalSequence);
+            out.writeInt(floorPlans.size());
+            for (FloorPlan plan : floorPlans) {
+                writeFloorPlan(out, plan);
+            }
+            out.writeInt(archived.size());
+            for (ArchivedReservation reservation : archived) {
+                StateCodec.writeArchived(out, reservation);
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads a snapshot by memory-mapping its file.
+     *
+     * @param file   The snapshot file.
+     * @param admins Resolves admin identifiers to admins, returning null for unknown ones.
+     * @return The loaded snapshot.
+     * @throws IOException If the file couldn't be read or is not a snapshot.
+     */
+    static StateSnapshot read(Path file, IntFunction<Admin> admins) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int version = in.getInt() == MAGIC ? in.getInt() : -1;
+            if (version != FORMAT_VERSION && version != FORMAT_VERSION_WITHOUT_ARCHIVE) {
+                throw new IOException(file + " is not a supported floor plan snapshot");
+            }
+            long journalSequence = in.getLong();
+            int floorCount = in.getInt();
+            List<FloorPlan> floorPlans = new ArrayList<>(floorCount);
+            Map<Integer, ReservingRoom> reservations = new HashMap<>();
+            for (int i = 0; i < floorCount; i++) {
+                floorPlans.add(readFloorPlan(in, admins, reservations));
+            }
+            List<ArchivedReservation> archived = new ArrayList<>();
+            if (version != FORMAT_VERSION_WITHOUT_ARCHIVE) {
+                int archivedCount = in.getInt();
+                for (int i = 0; i < archivedCount; i++) {
+                    archived.add(StateCodec.readArchived(in));
+                }
+            }
+            return new StateSnapshot(floorPlans, archived, journalSequence);
+        }
+    }
+
+    /**
+     * Writes a floor plan and its rooms.
+     *
+     * @param out  The stream to write to.
+     * @param plan The floor plan.
+     * @throws IOException If writing fails.
+     */
+    private static void writeFloorPlan(DataOutputStream out, FloorPlan plan) throws IOException {
+        List<Room> rooms = new ArrayList<>(plan.getRooms());
+        out.writeInt(plan.getFloorPlanId());
+        StateCodec.writeString(out, plan.getPlanName());
+        out.writeFloat(plan.getVersion());
+        StateCodec.writeString(out, plan.getDescription());
+        StateCodec.writeString(out, plan.getLastModified() != null ? plan.getLastModified().toString() : null);
+        out.writeInt(plan.getPriority());
+        out.writeInt(plan.getCreator() != null ? plan.getCreator().getId() : -1);
+        out.writeInt(rooms.size());
+        for (Room room : rooms) {
+            StateCodec.writeRoom(out, room);
+        }
+    }
+
+    /**
+     * Reads a floor plan and its rooms.
+     *
+     * @param in           The buffer to read from.
+     * @param admins       Resolves admin identifiers to admins.
+     * @param reservations The reservations read so far by identifier, shared by rooms booked together.
+     * @return The floor plan.
+     */
+    private static FloorPlan readFloorPlan(ByteBuffer in, IntFunction<Admin> admins,
+                                            Map<Integer, ReservingRoom> reservations) {
+        int id = in.getInt();
+        String planName = StateCodec.readString(in);
+        float version = in.getFloat();
+        String description = StateCodec.readString(in);
+        String lastModifiedText = StateCodec.readString(in);
+        LocalDateTime lastModified = lastModifiedText != null ? LocalDateTime.parse(lastModifiedText) : null;
+        int priority = in.getInt();
+        Admin creator = admins.apply(in.getInt());
+        FloorPlan plan = new FloorPlan(id, planName, version, description, new ArrayList<Room>(), creator,
+                lastModified, priority);
+        int roomCount = in.getInt();
+        for (int i = 0; i < roomCount; i++) {
+            plan.addRoom(StateCodec.readRoom(in, admins, reservations));
+        }
+        return plan;
+    }
+}
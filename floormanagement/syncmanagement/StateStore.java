@@ -0,0 +1,174 @@
+package floormanagement.syncmanagement;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import floormanagement.booking.ReservationArchive;
+import floormanagement.booking.ReservationArchive.ArchivedReservation;
+import floormanagement.booking.ReservingRoom;
+import floormanagement.floor.FloorPlan;
+import floormanagement.floor.Room;
+import floormanagement.users.Admin;
+
+/**
+ * Persists the in-memory floor plans as periodic snapshots plus a journal of the reservation
+ * changes made since, so a restart only loads the last snapshot and replays the journal tail
+ * instead of reloading every floor plan from the database.
+ * The store also keeps the archive of expired reservations, which reporting rebuilds from;
+ * hand {@link #getArchive()} to the reservation compactor so that expiries are persisted too.
+ * Rooms added to or removed from a floor plan are not journaled; take a snapshot after such edits.
+ */
+public class StateStore {
+    private static final String SNAPSHOT_FILE = "floorplans.snapshot";
+
+    private final Path directory;
+    private final IntFunction<Admin> admins;
+    private final List<FloorPlan> floorPlans;
+    private final ReservationArchive archive;
+    private ChangeJournal journal;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a StateStore keeping its files in the given directory.
+     *
+     * @param directory The directory holding the snapshot and the journal.
+     * @param admins    Resolves admin identifiers to admins, returning null for unknown ones.
+     */
+    public StateStore(Path directory, IntFunction<Admin> admins) {
+        this.directory = directory;
+        this.admins = admins;
+        this.floorPlans = new CopyOnWriteArrayList<>();
+        this.archive = new ReservationArchive();
+    }
+
+    /**
+     * Retrieves the archive of expired reservations, restored by {@link #recover} and included in the snapshots.
+     *
+     * @return The reservation archive.
+     */
+    public ReservationArchive getArchive() {
+        return this.archive;
+    }
+
+    /**
+     * Restores the floor plans and the archive from the last snapshot and the journal, then starts journaling
+     * their changes. When there is no snapshot yet an empty list is returned, and the floor plans
+     * loaded from the database should be handed to {@link #track} followed by {@link #snapshot}.
+     *
+     * @return The restored floor plans.
+     * @throws IOException If the snapshot or the journal couldn't be read.
+     * @throws IllegalStateException If the store has already been recovered.
+     */
+    public synchronized List<FloorPlan> recover() throws IOException, IllegalStateException {
+        if (journal != null) {
+            throw new IllegalStateException("State store has already been recovered");
+        }
+        Files.createDirectories(directory);
+        Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        StateSnapshot snapshot = Files.exists(snapshotFile) ? StateSnapshot.read(snapshotFile, admins)
+                : new StateSnapshot(new ArrayList<FloorPlan>(), new ArrayList<ArchivedReservation>(), 0);
+        for (ArchivedReservation reservation : snapshot.getArchived()) {
+            archive.add(reservation);
+        }
+
+        Map<Integer, Room> rooms = new HashMap<>();
+        Map<Integer, ReservingRoom> reservations = new HashMap<>();
+        for (FloorPlan plan : snapshot.getFloorPlans()) {
+            for (Room room : plan.getRooms()) {
+                rooms.put(room.getRoomId(), room);
+                for (ReservingRoom reservation : room.getReservations()) {
+                    reservations.put(reservation.getId(), reservation);
+                }
+            }
+        }
+        long lastSequence = ChangeJournal.replay(directory, snapshot.getJournalSequence(), rooms, reservations,
+                archive, admins);
+        journal = new ChangeJournal(directory, lastSequence);
+        for (FloorPlan plan : snapshot.getFloorPlans()) {
+            track(plan);
+        }
+        System.out.println("Recovered " + snapshot.getFloorPlans().size() + " floor plans from snapshot and "
+                + (lastSequence - snapshot.getJournalSequence()) + " journaled changes");
+        return new ArrayList<>(snapshot.getFloorPlans());
+    }
+
+    /**
+     * Includes a floor plan in the snapshots and journals the changes to its reservations.
+     *
+     * @param plan The floor plan to be tracked.
+     * @throws IllegalStateException If the store has not been recovered yet.
+     */
+    public synchronized void track(FloorPlan plan) throws IllegalStateException {
+        if (journal == null) {
+            throw new IllegalStateException("State store must be recovered before tracking floor plans");
+        }
+        if (!floorPlans.contains(plan)) {
+            floorPlans.add(plan);
+            plan.addReservationListener(journal);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the tracked floor plans and the archive, and drops the journal segments it covers.
+     *
+     * @throws IOException If the snapshot couldn't be written.
+     * @throws IllegalStateException If the store has not been recovered yet.
+     */
+    public synchronized void snapshot() throws IOException, IllegalStateException {
+        if (journal == null) {
+            throw new IllegalStateException("State store must be recovered before taking snapshots");
+        }
+        long journalSequence = journal.rotate();
+        new StateSnapshot(new ArrayList<>(floorPlans), archive.getArchived(), journalSequence)
+                .write(directory.resolve(SNAPSHOT_FILE));
+        journal.deleteSegmentsUpTo(journalSequence);
+    }
+
+    /**
+     * Starts taking snapshots periodically on a background daemon thread.
+     *
+     * @param period The time between two snapshots.
+     * @param unit   The unit of the period.
+     * @throws IllegalStateException If periodic snapshots are already running.
+     */
+    public synchronized void start(long period, TimeUnit unit) throws IllegalStateException {
+        if (scheduler != null) {
+            throw new IllegalStateException("Periodic snapshots are already running");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "state-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (Exception e) {
+                System.err.println("Couldn't write floor plan snapshot due to :- " + e.getMessage());
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Stops the periodic snapshots and closes the journal.
+     */
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+}